@@ -25,8 +25,10 @@ package com.github.horrorho.ragingmoose;
 
 import static java.lang.Long.toHexString;
 import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -40,12 +42,21 @@ import javax.annotation.concurrent.NotThreadSafe;
 class BitInStream {
     // accumNBits 63 bit limit avoids unsupported 64 bit shifts/ branch.
 
-    private final ByteBuffer in;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private ByteBuffer in;
+    // Backing array of heap sources, loads bypass the buffer.
+    @Nullable
+    private byte[] array;
+    private int base;
+    // Read position, decreasing from the source position. Checked once per refill, loads are then in bounds.
+    private int pos;
     private long accum;
     private int accumNBits;
 
     BitInStream(ByteBuffer in, long accum, int accumNBits) {
         this.in = Objects.requireNonNull(in);
+        bind(in);
         this.accum = accum;
         this.accumNBits = accumNBits;
     }
@@ -54,48 +65,81 @@ class BitInStream {
         this(in, 0, 0);
     }
 
+    BitInStream() {
+        this(EMPTY);
+    }
+
+    @Nonnull
+    BitInStream init(ByteBuffer in, int n) throws LZFSEDecoderException {
+        // Rebinds the source, decoders retain a single instance across blocks.
+        this.in = Objects.requireNonNull(in);
+        bind(in);
+        return init(n);
+    }
+
+    void bind(ByteBuffer in) {
+        if (in.hasArray() && in.order() == LITTLE_ENDIAN) {
+            array = in.array();
+            base = in.arrayOffset();
+        } else {
+            array = null;
+            base = 0;
+        }
+        pos = in.position();
+    }
+
+    long getLong(int i) {
+        // Loads never pass the source position, which bounds pos from above.
+        return array == null
+                ? in.getLong(i)
+                : ByteArrays.getLongLE(array, base + i);
+    }
+
     @Nonnull
     BitInStream init(int n) throws LZFSEDecoderException {
-        try {
-            if (n > 0) {
-                throw new LZFSEDecoderException();
-            } else if (n == 0) {
-                in.position(in.position() - 7);
-                accum = in.getLong(in.position() - 1);
-                accum >>>= 8;
-                accumNBits = 56;
-            } else {
-                in.position(in.position() - 8);
-                accum = in.getLong(in.position());
-                accumNBits = n + 64;
+        if (n > 0) {
+            throw LZFSEStatusException.CORRUPT;
+        } else if (n == 0) {
+            pos -= 7;
+            if (pos < 1) {
+                throw LZFSEStatusException.CORRUPT;
+            }
+            accum = getLong(pos - 1);
+            accum >>>= 8;
+            accumNBits = 56;
+        } else {
+            pos -= 8;
+            if (pos < 0) {
+                throw LZFSEStatusException.CORRUPT;
+            }
+            accum = getLong(pos);
+            accumNBits = n + 64;
+            // Padding bits above the accumulator must be clear, reads thereafter yield at most the bits requested.
+            if (accum >>> accumNBits != 0) {
+                throw LZFSEStatusException.CORRUPT;
             }
-//            check();
-            return this;
-
-        } catch (IllegalArgumentException ex) {
-            throw new LZFSEDecoderException(ex);
         }
+//        check();
+        return this;
     }
 
     @Nonnull
     BitInStream fill() throws LZFSEDecoderException {
-        try {
-            if (accumNBits < 56) {
-                int nBits = 63 - accumNBits;
-                int nBytes = nBits >>> 3;
-                int mBits = (nBits & 0x07) + 1;
-                in.position(in.position() - nBytes);
-                accum = in.getLong(in.position());
-                accum <<= mBits;
-                accum >>>= mBits;
-                accumNBits += nBytes << 3;
+        if (accumNBits < 56) {
+            int nBits = 63 - accumNBits;
+            int nBytes = nBits >>> 3;
+            int mBits = (nBits & 0x07) + 1;
+            pos -= nBytes;
+            if (pos < 0) {
+                throw LZFSEStatusException.CORRUPT;
             }
-//            check();
-            return this;
-
-        } catch (IllegalArgumentException ex) {
-            throw new LZFSEDecoderException(ex);
+            accum = getLong(pos);
+            accum <<= mBits;
+            accum >>>= mBits;
+            accumNBits += nBytes << 3;
         }
+//        check();
+        return this;
     }
 
     long read(int n) {
@@ -127,6 +171,7 @@ class BitInStream {
     public String toString() {
         return "BitStream{"
                 + "in=" + in
+                + ", pos=" + pos
                 + ", accum=0x" + toHexString(accum)
                 + ", accumNBits=" + accumNBits
                 + '}';
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static java.lang.Long.toHexString;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Low level bit out stream, the counterpart of {@link BitInStream}.
+ * <p>
+ * Bits are written forwards, least significant first. BitInStream reads the stream backwards, so values are read in
+ * the reverse order of writing.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+class BitOutStream {
+
+    // A reference decoder reads at least 8 bytes.
+    private static final int MIN_PAYLOAD = 8;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private byte[] out = EMPTY;
+    private int start;
+    private int pos;
+    private long accum;
+    private int accumNBits;
+
+    @Nonnull
+    BitOutStream init(byte[] out, int off) {
+        this.out = Objects.requireNonNull(out);
+        this.start = off;
+        this.pos = off;
+        this.accum = 0;
+        this.accumNBits = 0;
+        return this;
+    }
+
+    void write(long bits, int n) {
+        // bits holds at most n bits, n at most 32.
+        accum |= bits << accumNBits;
+        accumNBits += n;
+        if (accumNBits >= 32) {
+            out[pos++] = (byte) accum;
+            out[pos++] = (byte) (accum >>> 8);
+            out[pos++] = (byte) (accum >>> 16);
+            out[pos++] = (byte) (accum >>> 24);
+            accum >>>= 32;
+            accumNBits -= 32;
+        }
+    }
+
+    /**
+     * Flushes the remaining bits, zero padded to a byte boundary.
+     *
+     * @return the negated number of padding bits, -7 to 0, as read by {@link BitInStream#init(int)}
+     */
+    int finish() {
+        int padding = -accumNBits & 0x07;
+        for (; accumNBits > 0; accumNBits -= 8) {
+            out[pos++] = (byte) accum;
+            accum >>>= 8;
+        }
+        accumNBits = 0;
+        accum = 0;
+        return -padding;
+    }
+
+    /**
+     * Pads short payloads with leading zeros to 8 bytes, bits are read from the end.
+     *
+     * @return payload size in bytes
+     */
+    int pad() {
+        int n = pos - start;
+        if (n < MIN_PAYLOAD) {
+            System.arraycopy(out, start, out, start + MIN_PAYLOAD - n, n);
+            Arrays.fill(out, start, start + MIN_PAYLOAD - n, (byte) 0);
+            pos = start + MIN_PAYLOAD;
+        }
+        return pos - start;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    @Override
+    public String toString() {
+        return "BitOutStream{"
+                + "start=" + start
+                + ", pos=" + pos
+                + ", accum=0x" + toHexString(accum)
+                + ", accumNBits=" + accumNBits
+                + '}';
+    }
+}
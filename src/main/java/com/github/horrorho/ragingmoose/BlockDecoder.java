@@ -34,4 +34,16 @@ interface BlockDecoder {
     int read() throws IOException;
 
     int read(byte b[], int off, int len) throws IOException;
+
+    long skip(long n) throws IOException;
+
+    /**
+     * Decodes the remainder of the block without producing output.
+     *
+     * @param position number of bytes decoded prior to this block
+     * @return number of bytes the block decodes to
+     * @throws IOException
+     * @throws LZFSEDecoderException if the block is malformed
+     */
+    long verify(long position) throws IOException, LZFSEDecoderException;
 }
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Byte array primitives, Java 8 baseline. Java 17+ runtimes load the VarHandle variant from the multi-release jar.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class ByteArrays {
+
+    private ByteArrays() {
+    }
+
+    static long getLongLE(byte[] b, int off) {
+        return (b[off] & 0xFFL)
+                | (b[off + 1] & 0xFFL) << 8
+                | (b[off + 2] & 0xFFL) << 16
+                | (b[off + 3] & 0xFFL) << 24
+                | (b[off + 4] & 0xFFL) << 32
+                | (b[off + 5] & 0xFFL) << 40
+                | (b[off + 6] & 0xFFL) << 48
+                | (b[off + 7] & 0xFFL) << 56;
+    }
+
+    static int getIntLE(byte[] b, int off) {
+        return (b[off] & 0xFF)
+                | (b[off + 1] & 0xFF) << 8
+                | (b[off + 2] & 0xFF) << 16
+                | (b[off + 3] & 0xFF) << 24;
+    }
+
+    static int getShortLE(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8;
+    }
+
+    static void putIntLE(byte[] b, int off, int v) {
+        b[off] = (byte) v;
+        b[off + 1] = (byte) (v >>> 8);
+        b[off + 2] = (byte) (v >>> 16);
+        b[off + 3] = (byte) (v >>> 24);
+    }
+
+    static void putLongLE(byte[] b, int off, long v) {
+        putIntLE(b, off, (int) v);
+        putIntLE(b, off + 4, (int) (v >>> 32));
+    }
+
+    static void expand(byte[] b, int off, int d, int len) {
+        // Overlapped pattern expansion, b[off + i] = b[off + i - d] for i < len.
+        for (int n = off + len; off < n; off++) {
+            b[off] = b[off - d];
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.WillNotClose;
@@ -50,6 +51,14 @@ final class IO {
         return bb;
     }
 
+    @Nonnull
+    static ByteBuffer writeFully(@WillNotClose WritableByteChannel ch, ByteBuffer bb) throws IOException {
+        while (bb.hasRemaining()) {
+            ch.write(bb);
+        }
+        return bb;
+    }
+
     private IO() {
     }
 }
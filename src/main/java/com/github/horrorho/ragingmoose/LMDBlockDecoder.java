@@ -25,6 +25,7 @@ package com.github.horrorho.ragingmoose;
 
 import java.io.IOException;
 import java.util.Objects;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -36,7 +37,9 @@ import javax.annotation.concurrent.NotThreadSafe;
 @ParametersAreNonnullByDefault
 abstract class LMDBlockDecoder implements BlockDecoder {
 
-    private final MatchBuffer mb;
+    private static final int SCRATCH_SIZE = 16384;
+
+    final MatchBuffer mb;
 
     LMDBlockDecoder(MatchBuffer mb) {
         this.mb = Objects.requireNonNull(mb);
@@ -46,60 +49,153 @@ abstract class LMDBlockDecoder implements BlockDecoder {
     int m;
     int d;
 
+    // Decoded bytes remaining in the block.
+    int budget;
+
+    // Block metrics, only ever set when enabled.
+    @Nullable
+    long[] counts;
+
+    @Nullable
+    LZFSETracer tracer;
+
+    @Nullable
+    private byte[] scratch;
+
     @Override
     public int read() throws IOException {
-        try {
-            do {
-                // Literal
-                if (l > 0) {
-                    l--;
-                    byte b = literal();
-                    mb.write(b);
-                    return b & 0xFF;
-                }
-                // Match
-                if (m > 0) {
-                    m--;
-                    return mb.match(d) & 0xFF;
-                }
-            } while (lmd());
-
-            return -1;
-
-        } catch (IllegalArgumentException ex) {
-            throw new LZFSEDecoderException(ex);
-        }
+        // Generic LMD read loops. Their literal, literals and lmd call sites are shared by every subclass and turn
+        // megamorphic once several block types decode, the final LZFSE and LZVN decoders carry specialized copies.
+        do {
+            // Literal
+            if (l > 0) {
+                l--;
+                byte b = literal();
+                mb.write(b);
+                return b & 0xFF;
+            }
+            // Match
+            if (m > 0) {
+                m--;
+                return mb.match(d) & 0xFF;
+            }
+        } while (next());
+
+        return -1;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-        try {
-            int to = off + len;
-            int o = off;
-            do {
-                // Literals
-                int ls = Math.min(to - o, l);
-                for (int n = o + ls; o < n; o++) {
-                    byte _b = literal();
-                    mb.write(_b);
-                    b[o] = _b;
-                }
+        int to = off + len;
+        int o = off;
+        do {
+            // Literals, bounds validated per L/M/D triple, bulk copied.
+            int ls = Math.min(to - o, l);
+            if (ls > 0) {
+                literals(b, o, ls);
+                mb.write(b, o, ls);
+                o += ls;
                 l -= ls;
-                // Matches
-                int ms = Math.min(to - o, m);
-                for (int n = o + ms; o < n; o++) {
-                    b[o] = mb.match(d);
-                }
+            }
+            // Matches
+            int ms = Math.min(to - o, m);
+            if (ms > 0) {
+                match(b, o, ms);
+                o += ms;
                 m -= ms;
-            } while (to - o > 0 && lmd());
+            }
+        } while (to - o > 0 && next());
 
-            return o - off;
+        return o - off;
+    }
 
-        } catch (IllegalArgumentException ex) {
-            throw new LZFSEDecoderException(ex);
+    final void match(byte[] b, int off, int len) {
+        if (LZFSEMetrics.ENABLED && counts != null) {
+            long t = System.nanoTime();
+            mb.match(d, b, off, len);
+            counts[LZFSEMetrics.MATCH_NANOS] += System.nanoTime() - t;
+        } else {
+            mb.match(d, b, off, len);
         }
     }
 
+    @Override
+    public long skip(long n) throws IOException {
+        // Runs the bulk literal and match paths into scratch, the output is retained by the match buffer only.
+        if (scratch == null) {
+            scratch = new byte[SCRATCH_SIZE];
+        }
+        long s = 0;
+        while (s < n) {
+            int k = read(scratch, 0, (int) Math.min(n - s, scratch.length));
+            if (k == 0) {
+                break;
+            }
+            s += k;
+        }
+        return s;
+    }
+
+    @Override
+    public long verify(long position) throws IOException, LZFSEDecoderException {
+        long n = 0;
+        do {
+            skipLiterals(l);
+            n += l;
+            if (m > 0 && d > position + n) {
+                throw new LZFSEDecoderException("bad match distance: " + d + " at: " + (position + n));
+            }
+            n += m;
+            l = 0;
+            m = 0;
+        } while (next());
+
+        if (n != rawBytes()) {
+            throw new LZFSEDecoderException("bad raw byte count: " + n + " expected: " + rawBytes());
+        }
+        return n;
+    }
+
+    boolean next() throws IOException {
+        return (LZFSEMetrics.ENABLED && counts != null ? lmd(counts) : lmd()) && triple();
+    }
+
+    final boolean triple() throws LZFSEDecoderException {
+        // Validates each L/M/D triple against the block so that literal and match runs may execute unchecked.
+        if (l < 0 || m < 0 || l > budget || m > budget - l) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        if (m > 0 && (d <= 0 || d > mb.size())) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        budget -= l + m;
+        if (LZFSEMetrics.ENABLED && counts != null) {
+            counts[LZFSEMetrics.LITERALS] += l;
+            if (m > 0) {
+                counts[LZFSEMetrics.MATCHES]++;
+                counts[LZFSEMetrics.MATCH_BYTES] += m;
+                counts[LZFSEMetrics.MATCH_DISTANCE] += d;
+            }
+        }
+        if (tracer != null) {
+            tracer.lmd(l, m, m > 0 ? d : 0);
+        }
+        return true;
+    }
+
+    boolean lmd(long[] counts) throws IOException {
+        long t = System.nanoTime();
+        boolean lmd = lmd();
+        counts[LZFSEMetrics.ENTROPY_NANOS] += System.nanoTime() - t;
+        return lmd;
+    }
+
+    abstract int rawBytes();
+
+    abstract void literals(byte[] b, int off, int len) throws IOException;
+
+    abstract void skipLiterals(int n) throws IOException;
+
     abstract byte literal() throws IOException;
 
     abstract boolean lmd() throws IOException;
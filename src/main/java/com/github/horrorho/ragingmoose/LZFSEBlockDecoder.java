@@ -39,32 +39,32 @@ import javax.annotation.concurrent.NotThreadSafe;
  */
 @NotThreadSafe
 @ParametersAreNonnullByDefault
-class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
+final class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
 
-    private static final byte[] L_EXTRA_BITS = {
+    static final byte[] L_EXTRA_BITS = {
         0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 2, 3, 5, 8
     };
 
-    private static final int[] L_BASE_VALUE = {
+    static final int[] L_BASE_VALUE = {
         0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 20, 28, 60
     };
 
-    private static final byte[] M_EXTRA_BITS = {
+    static final byte[] M_EXTRA_BITS = {
         0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 3, 5, 8, 11
     };
 
-    private static final int[] M_BASE_VALUE = {
+    static final int[] M_BASE_VALUE = {
         0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 24, 56, 312
     };
 
-    private static final byte[] D_EXTRA_BITS = {
+    static final byte[] D_EXTRA_BITS = {
         0,  0,  0,  0,  1,  1,  1,  1,  2,  2,  2,  2,  3,  3,  3,  3,
         4,  4,  4,  4,  5,  5,  5,  5,  6,  6,  6,  6,  7,  7,  7,  7,
         8,  8,  8,  8,  9,  9,  9,  9,  10, 10, 10, 10, 11, 11, 11, 11,
         12, 12, 12, 12, 13, 13, 13, 13, 14, 14, 14, 14, 15, 15, 15, 15
     };
 
-    private static final int[] D_BASE_VALUE = {
+    static final int[] D_BASE_VALUE = {
         0,      1,      2,      3,     4,     6,     8,     10,    12,    16,
         20,     24,     28,     36,    44,    52,    60,    76,    92,    108,
         124,    156,    188,    220,   252,   316,   380,   444,   508,   636,
@@ -83,13 +83,14 @@ class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
     private final byte[] literals = new byte[LITERALS_PER_BLOCK + 64];
     private int pos;
 
+    private final BitInStream in = new BitInStream();
+
     @Nullable
     private ByteBuffer bb;
-    @Nullable
-    private BitInStream in;
 
     private int rawBytes;
     private int symbols;
+    private int nLiterals;
 
     LZFSEBlockDecoder(MatchBuffer mb) throws LZFSEDecoderException {
         super(mb);
@@ -112,25 +113,96 @@ class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
                 .nLiteralPayloadBytes(bh.nLiteralPayloadBytes())
                 .nLiterals(bh.nLiterals())
                 .literalBits(bh.literalBits())
-                .decodeInto(ch, literals);
+                .init(ch);
 
         initBuffer(bh.nLmdPayloadBytes());
         IO.readFully(ch, bb);
-        in = new BitInStream(bb)
-                .init(bh.lmdBits());
+        in.init(bb, bh.lmdBits());
 
         rawBytes = bh.nRawBytes();
         symbols = bh.nMatches();
+        nLiterals = bh.nLiterals();
+        budget = rawBytes;
 
         pos = 0;
+        l = 0;
+        m = 0;
+        d = -1;
 
         return this;
     }
 
+    @Override
+    public int read() throws IOException {
+        // Specialized copy of LMDBlockDecoder#read, as in LZVNBlockDecoder. The inherited loops' call sites are shared by every
+        // LMD decoder, here literal, literals and lmd bind statically to this final class.
+        do {
+            // Literal
+            if (l > 0) {
+                l--;
+                byte b = literal();
+                mb.write(b);
+                return b & 0xFF;
+            }
+            // Match
+            if (m > 0) {
+                m--;
+                return mb.match(d) & 0xFF;
+            }
+        } while (next());
+
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // Specialized, see read().
+        int to = off + len;
+        int o = off;
+        do {
+            int ls = Math.min(to - o, l);
+            if (ls > 0) {
+                literals(b, o, ls);
+                mb.write(b, o, ls);
+                o += ls;
+                l -= ls;
+            }
+            int ms = Math.min(to - o, m);
+            if (ms > 0) {
+                match(b, o, ms);
+                o += ms;
+                m -= ms;
+            }
+        } while (to - o > 0 && next());
+
+        return o - off;
+    }
+
+    @Override
+    boolean next() throws IOException {
+        // Specialized, see read().
+        return (LZFSEMetrics.ENABLED && counts != null ? lmd(counts) : lmd()) && triple();
+    }
+
+    @Override
     int rawBytes() {
         return rawBytes;
     }
 
+    @Override
+    void skipLiterals(int n) throws LZFSEDecoderException {
+        if (n > nLiterals - pos) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        pos += n;
+    }
+
+    @Override
+    void literals(byte[] b, int off, int len) {
+        System.arraycopy(literals, pos, b, off, len);
+        pos += len;
+    }
+
     @Override
     byte literal() throws IOException {
         return literals[pos++];
@@ -144,6 +216,10 @@ class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
             l(lValueDecoder.decode(in));
             m(mValueDecoder.decode(in));
             d(dValueDecoder.decode(in));
+            if (l > nLiterals - pos) {
+                throw LZFSEStatusException.CORRUPT;
+            }
+            literalDecoder.decodeInto(literals, pos + l);
             return true;
 
         } else {
@@ -154,11 +230,12 @@ class LZFSEBlockDecoder extends LMDBlockDecoder implements LZFSEConstants {
     void initBuffer(int nLmdPayloadBytes) {
         int capacity = 32 + nLmdPayloadBytes;
         if (bb == null || bb.capacity() < capacity) {
-            bb = ByteBuffer.allocate(capacity).order(LITTLE_ENDIAN);
-        } else {
-            bb.limit(capacity);
+            // Geometric growth, a reused decoder settles on its largest payload.
+            bb = ByteBuffer.allocate(bb == null ? capacity : Math.max(capacity, bb.capacity() << 1))
+                    .order(LITTLE_ENDIAN);
         }
-        bb.position(32);
+        bb.limit(capacity)
+                .position(32);
     }
 
     @Override
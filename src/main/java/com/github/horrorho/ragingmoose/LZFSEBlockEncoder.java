@@ -0,0 +1,294 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.D_BASE_VALUE;
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.D_EXTRA_BITS;
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.L_BASE_VALUE;
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.L_EXTRA_BITS;
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.M_BASE_VALUE;
+import static com.github.horrorho.ragingmoose.LZFSEBlockDecoder.M_EXTRA_BITS;
+import java.util.Arrays;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * LZFSE v2 block encoder, the counterpart of {@link LZFSEBlockDecoder}.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class LZFSEBlockEncoder implements LZFSEConstants {
+
+    // Magic, raw bytes and the three packed header words, frequency tables follow.
+    static final int HEADER_BYTES = 32;
+
+    // Frequency tables, payloads at up to 10 bits per literal and 54 bits per L/M/D triple.
+    static final int MAX_BLOCK_BYTES
+            = HEADER_BYTES + (ENCODE_SYMBOLS * 14 + 7) / 8
+            + 8 + (LITERALS_PER_BLOCK * 10 + 7) / 8
+            + 8 + (MATCHES_PER_BLOCK * 54 + 7) / 8;
+
+    private static final byte[] L_SYMBOLS = symbols(L_BASE_VALUE, L_EXTRA_BITS, ENCODE_MAX_L_VALUE);
+    private static final byte[] M_SYMBOLS = symbols(M_BASE_VALUE, M_EXTRA_BITS, ENCODE_MAX_M_VALUE);
+
+    static byte[] symbols(int[] base, byte[] extraBits, int max) {
+        byte[] symbols = new byte[max + 1];
+        for (int s = 0; s < base.length; s++) {
+            int to = Math.min(max + 1, base[s] + (1 << extraBits[s]));
+            Arrays.fill(symbols, base[s], to, (byte) s);
+        }
+        return symbols;
+    }
+
+    static int dSymbol(int d) {
+        // Largest symbol whose base does not exceed d.
+        int lo = 0;
+        int hi = D_BASE_VALUE.length - 1;
+        while (lo < hi) {
+            int mid = lo + hi + 1 >>> 1;
+            if (D_BASE_VALUE[mid] <= d) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private final byte[] literals = new byte[LITERALS_PER_BLOCK + 4];
+    private final byte[] lSymbols = new byte[MATCHES_PER_BLOCK];
+    private final byte[] mSymbols = new byte[MATCHES_PER_BLOCK];
+    private final byte[] dSymbols = new byte[MATCHES_PER_BLOCK];
+    private final int[] dValues = new int[MATCHES_PER_BLOCK];
+
+    private final int[] literalCounts = new int[ENCODE_LITERAL_SYMBOLS];
+    private final int[] lCounts = new int[ENCODE_L_SYMBOLS];
+    private final int[] mCounts = new int[ENCODE_M_SYMBOLS];
+    private final int[] dCounts = new int[ENCODE_D_SYMBOLS];
+
+    private final short[] literalFreq = new short[ENCODE_LITERAL_SYMBOLS];
+    private final short[] lFreq = new short[ENCODE_L_SYMBOLS];
+    private final short[] mFreq = new short[ENCODE_M_SYMBOLS];
+    private final short[] dFreq = new short[ENCODE_D_SYMBOLS];
+
+    // Table order as encoded.
+    private final short[][] freqs = new short[][]{lFreq, mFreq, dFreq, literalFreq};
+
+    private final TANSEncoder literalEncoder = new TANSEncoder(ENCODE_LITERAL_STATES, ENCODE_LITERAL_SYMBOLS);
+    private final TANSEncoder lEncoder = new TANSEncoder(ENCODE_L_STATES, ENCODE_L_SYMBOLS);
+    private final TANSEncoder mEncoder = new TANSEncoder(ENCODE_M_STATES, ENCODE_M_SYMBOLS);
+    private final TANSEncoder dEncoder = new TANSEncoder(ENCODE_D_STATES, ENCODE_D_SYMBOLS);
+
+    private final BitOutStream out = new BitOutStream();
+
+    /**
+     * Encodes a block of L/M/D triples, literals in place in the source. Triples are within the encoder limits,
+     * {@link #ENCODE_MAX_L_VALUE}, {@link #ENCODE_MAX_M_VALUE}, {@link #ENCODE_MAX_D_VALUE} and
+     * {@link #MATCHES_PER_BLOCK}, with no more than {@code LITERALS_PER_BLOCK - 3} literals. Literal only triples
+     * carry no distance.
+     *
+     * @param src
+     * @param off block start in src
+     * @param ls
+     * @param ms
+     * @param ds
+     * @param n number of triples
+     * @param nRawBytes
+     * @param dst at least {@link #MAX_BLOCK_BYTES} from dstOff
+     * @param dstOff
+     * @return encoded block size in bytes
+     */
+    int encode(byte[] src, int off, int[] ls, int[] ms, int[] ds, int n, int nRawBytes, byte[] dst, int dstOff) {
+        int nLiterals = symbols(src, off, ls, ms, ds, n);
+        normalize();
+
+        int q = dstOff + HEADER_BYTES;
+        q = freqs(dst, q);
+        int nHeaderBytes = q - dstOff;
+
+        // Literals, in groups of 4, last group first.
+        literalEncoder.init(literalFreq);
+        out.init(dst, q);
+        int literalState0 = 0;
+        int literalState1 = 0;
+        int literalState2 = 0;
+        int literalState3 = 0;
+        for (int i = nLiterals - 4; i >= 0; i -= 4) {
+            literalState3 = literalEncoder.encode(literalState3, literals[i + 3] & 0xFF, out);
+            literalState2 = literalEncoder.encode(literalState2, literals[i + 2] & 0xFF, out);
+            literalState1 = literalEncoder.encode(literalState1, literals[i + 1] & 0xFF, out);
+            literalState0 = literalEncoder.encode(literalState0, literals[i + 0] & 0xFF, out);
+        }
+        int literalBits = out.finish();
+        int nLiteralPayloadBytes = out.pad();
+        q += nLiteralPayloadBytes;
+
+        // L/M/D triples, last first, each in reverse of decoding order.
+        lEncoder.init(lFreq);
+        mEncoder.init(mFreq);
+        dEncoder.init(dFreq);
+        out.init(dst, q);
+        int lState = 0;
+        int mState = 0;
+        int dState = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int d = dSymbols[i];
+            out.write(dValues[i] - D_BASE_VALUE[d], D_EXTRA_BITS[d]);
+            dState = dEncoder.encode(dState, d, out);
+            int m = mSymbols[i];
+            out.write(ms[i] - M_BASE_VALUE[m], M_EXTRA_BITS[m]);
+            mState = mEncoder.encode(mState, m, out);
+            int l = lSymbols[i];
+            out.write(ls[i] - L_BASE_VALUE[l], L_EXTRA_BITS[l]);
+            lState = lEncoder.encode(lState, l, out);
+        }
+        int lmdBits = out.finish();
+        int nLmdPayloadBytes = out.pad();
+        q += nLmdPayloadBytes;
+
+        long v0 = nLiterals
+                | (long) nLiteralPayloadBytes << 20
+                | (long) n << 40
+                | (long) (literalBits + 7) << 60;
+        long v1 = literalState0
+                | (long) literalState1 << 10
+                | (long) literalState2 << 20
+                | (long) literalState3 << 30
+                | (long) nLmdPayloadBytes << 40
+                | (long) (lmdBits + 7) << 60;
+        long v2 = nHeaderBytes
+                | (long) lState << 32
+                | (long) mState << 42
+                | (long) dState << 52;
+        ByteArrays.putIntLE(dst, dstOff, COMPRESSEDV2_BLOCK_MAGIC);
+        ByteArrays.putIntLE(dst, dstOff + 4, nRawBytes);
+        ByteArrays.putLongLE(dst, dstOff + 8, v0);
+        ByteArrays.putLongLE(dst, dstOff + 16, v1);
+        ByteArrays.putLongLE(dst, dstOff + 24, v2);
+
+        return q - dstOff;
+    }
+
+    int symbols(byte[] src, int off, int[] ls, int[] ms, int[] ds, int n) {
+        Arrays.fill(literalCounts, 0);
+        Arrays.fill(lCounts, 0);
+        Arrays.fill(mCounts, 0);
+        Arrays.fill(dCounts, 0);
+
+        int nLiterals = 0;
+        int dPrev = -1;
+        for (int i = 0, p = off; i < n; i++) {
+            int l = ls[i];
+            int m = ms[i];
+            System.arraycopy(src, p, literals, nLiterals, l);
+            nLiterals += l;
+            p += l + m;
+
+            // Distance 0 repeats the previous. Literal only triples repeat it, or if there is none set a distance of 1
+            // that any decoder accepts once a literal is out.
+            int d;
+            if (m == 0) {
+                d = dPrev > 0 ? 0 : 1;
+            } else {
+                d = ds[i] == dPrev ? 0 : ds[i];
+            }
+            if (d != 0) {
+                dPrev = d;
+            }
+            dValues[i] = d;
+
+            lSymbols[i] = L_SYMBOLS[l];
+            mSymbols[i] = M_SYMBOLS[m];
+            dSymbols[i] = (byte) dSymbol(d);
+            lCounts[lSymbols[i]]++;
+            mCounts[mSymbols[i]]++;
+            dCounts[dSymbols[i]]++;
+        }
+        // Pad to a multiple of 4 literals, repeating the last.
+        while ((nLiterals & 3) != 0) {
+            literals[nLiterals] = literals[nLiterals - 1];
+            nLiterals++;
+        }
+        for (int i = 0; i < nLiterals; i++) {
+            literalCounts[literals[i] & 0xFF]++;
+        }
+        return nLiterals;
+    }
+
+    void normalize() {
+        TANSEncoder.normalize(lCounts, lFreq, ENCODE_L_STATES);
+        TANSEncoder.normalize(mCounts, mFreq, ENCODE_M_STATES);
+        TANSEncoder.normalize(dCounts, dFreq, ENCODE_D_STATES);
+        TANSEncoder.normalize(literalCounts, literalFreq, ENCODE_LITERAL_STATES);
+    }
+
+    int freqs(byte[] dst, int q) {
+        // Frequency tables as read by LZFSEBlockHeader#initV2Tables, variable length codes packed least significant
+        // bit first.
+        long accum = 0;
+        int accumNBits = 0;
+        for (short[] freq : freqs) {
+            for (short f : freq) {
+                accum |= (long) freqCode(f) << accumNBits;
+                accumNBits += freqNBits(f);
+                while (accumNBits >= 8) {
+                    dst[q++] = (byte) accum;
+                    accum >>>= 8;
+                    accumNBits -= 8;
+                }
+            }
+        }
+        if (accumNBits > 0) {
+            dst[q++] = (byte) accum;
+        }
+        return q;
+    }
+
+    static int freqCode(int f) {
+        switch (f) {
+            case 0:
+                return 0;
+            case 1:
+                return 2;
+            case 2:
+                return 1;
+            case 3:
+                return 5;
+            default:
+                if (f < 8) {
+                    return 3 | f - 4 << 3;
+                }
+                if (f < 24) {
+                    return 7 | f - 8 << 4;
+                }
+                return 15 | f - 24 << 4;
+        }
+    }
+
+    static int freqNBits(int f) {
+        return f < 2 ? 2 : f < 4 ? 3 : f < 8 ? 5 : f < 24 ? 8 : 14;
+    }
+}
@@ -51,7 +51,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
                 }
             }
         } catch (BufferUnderflowException ex) {
-            throw new LZFSEDecoderException(ex);
+            throw LZFSEStatusException.CORRUPT;
         }
     }
 
@@ -66,7 +66,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
             int nbits = nBits(accum);
             if (nbits > accumNBits) {
-                throw new LZFSEDecoderException();
+                throw LZFSEStatusException.CORRUPT;
             }
 
             tables[j][k] = (short) value(accum, nbits);
@@ -79,7 +79,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
             accumNBits -= nbits;
         }
         if (accumNBits >= 8 || bb.hasRemaining()) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
     }
 
@@ -131,7 +131,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
         return (int) (v >>> offset & (1L << nBits) - 1L);
     }
 
-    private static final int V1_SIZE = 48 + ENCODE_SYMBOLS * 2;
+    static final int V1_SIZE = 48 + ENCODE_SYMBOLS * 2;
 
     private static final int V2_SIZE = 28;
 
@@ -142,6 +142,10 @@ class LZFSEBlockHeader implements LZFSEConstants {
     private final short[] mFreq = new short[ENCODE_M_SYMBOLS];
     private final short[] dFreq = new short[ENCODE_D_SYMBOLS];
 
+    // Table order as encoded, held to spare a varargs array per header.
+    private final short[][] freqs = new short[][]{lFreq, mFreq, dFreq, literalFreq};
+
+    private int nHeaderBytes;
     private int nRawBytes;
     private int nPayloadBytes;
     private int nLiterals;
@@ -183,9 +187,10 @@ class LZFSEBlockHeader implements LZFSEConstants {
         mState = bb.getShort();
         dState = bb.getShort();
 
-        initV1Tables(bb, lFreq, mFreq, dFreq, literalFreq);
+        initV1Tables(bb, freqs);
+        nHeaderBytes = 4 + V1_SIZE;
 
-        return this;
+        return validate();
     }
 
     @Nonnull
@@ -220,20 +225,52 @@ class LZFSEBlockHeader implements LZFSEConstants {
         nPayloadBytes(nLiteralPayloadBytes + nLmdPayloadBytes);
 
         if (nCompressedPayload == 0) {
-            clear(lFreq, mFreq, dFreq, literalFreq);
+            clear(freqs);
 
-        } else if (nCompressedPayload > bb.capacity()) {
-            throw new LZFSEDecoderException();
+        } else if (nCompressedPayload < 0 || nCompressedPayload > bb.capacity()) {
+            throw LZFSEStatusException.CORRUPT;
 
         } else {
             bb.rewind().limit(nCompressedPayload);
             IO.readFully(in, bb).flip();
 
-            initV2Tables(bb, lFreq, mFreq, dFreq, literalFreq);
+            initV2Tables(bb, freqs);
+        }
+        nHeaderBytes = headerSize;
+        return validate();
+    }
+
+    @Nonnull
+    LZFSEBlockHeader validate() throws LZFSEDecoderException {
+        // Block level bounds, hoisted out of the decoding loops. Literal and match counts within the encoder's block
+        // limits, literals accounted for in the output, allowing for padding to a multiple of 4, and payload sizes
+        // summing.
+        if (nLiterals > LITERALS_PER_BLOCK || nLiterals > nRawBytes + 3L) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        if (nMatches > MATCHES_PER_BLOCK) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        if (nPayloadBytes != (long) nLiteralPayloadBytes + nLmdPayloadBytes) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        if (literalBits < -7 || literalBits > 0 || lmdBits < -7 || lmdBits > 0) {
+            throw LZFSEStatusException.CORRUPT;
+        }
+        // Initial tANS states within their tables, transitions thereafter stay in range.
+        if (state(literalState0, ENCODE_LITERAL_STATES) | state(literalState1, ENCODE_LITERAL_STATES)
+                | state(literalState2, ENCODE_LITERAL_STATES) | state(literalState3, ENCODE_LITERAL_STATES)
+                | state(lState, ENCODE_L_STATES) | state(mState, ENCODE_M_STATES) | state(dState, ENCODE_D_STATES)) {
+            throw LZFSEStatusException.CORRUPT;
         }
         return this;
     }
 
+    static boolean state(int state, int nStates) {
+        // True if out of range.
+        return state < 0 || state >= nStates;
+    }
+
     @Nonnull
     short[] literalFreq() {
         return literalFreq;
@@ -254,13 +291,22 @@ class LZFSEBlockHeader implements LZFSEConstants {
         return dFreq;
     }
 
+    /**
+     * Returns the header size, including the block magic.
+     *
+     * @return header size in bytes
+     */
+    int nHeaderBytes() {
+        return nHeaderBytes;
+    }
+
     int nRawBytes() {
         return nRawBytes;
     }
 
     private void nRawBytes(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nRawBytes = v;
     }
@@ -271,7 +317,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
     private void nPayloadBytes(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nPayloadBytes = v;
     }
@@ -282,7 +328,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
     private void nLiterals(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nLiterals = v;
     }
@@ -293,7 +339,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
     private void nMatches(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nMatches = v;
     }
@@ -304,7 +350,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
     private void nLiteralPayloadBytes(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nLiteralPayloadBytes = v;
     }
@@ -315,7 +361,7 @@ class LZFSEBlockHeader implements LZFSEConstants {
 
     private void nLmdPayloadBytes(int v) throws LZFSEDecoderException {
         if (v < 0) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         this.nLmdPayloadBytes = v;
     }
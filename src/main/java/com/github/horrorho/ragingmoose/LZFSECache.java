@@ -0,0 +1,362 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Bounded cache of decoded content keyed on the compressed input.
+ * <p>
+ * Keys are a 64 bit hash of the compressed bytes. The compressed bytes are retained alongside the decoded content and
+ * compared on lookup, a hash collision can only result in a miss. The total weight, compressed plus decoded bytes, is
+ * bounded. The cache is split into independently locked segments, each evicting least recently used entries. Decoded
+ * content may optionally be held off heap in direct buffers.
+ * <p>
+ * Each segment holds an equal share of the capacity, which also bounds the weight of a single entry. Heavier entries
+ * are decoded and returned but never cached, every lookup is a miss. A concurrency level of 1 admits entries up to the
+ * full capacity.
+ * <p>
+ * Lookups return read only buffers, concurrent callers never observe each other's positions.
+ *
+ * @author Ayesha
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class LZFSECache {
+
+    private static final long M = 0xc6a4a7935bd1e995L;
+    private static final int R = 47;
+
+    // Declared decoded sizes are trusted up to the larger of these, beyond that the buffer grows with the output.
+    private static final int PRESIZE_MIN = 1 << 20;
+    private static final int PRESIZE_RATIO = 256;
+
+    static long hash(byte[] b, int off, int len) {
+        // MurmurHash64A.
+        ByteBuffer bb = ByteBuffer.wrap(b, off, len).order(LITTLE_ENDIAN);
+        long h = 0x9747b28cL ^ (len * M);
+        while (bb.remaining() >= 8) {
+            long k = bb.getLong();
+            k *= M;
+            k ^= k >>> R;
+            k *= M;
+            h ^= k;
+            h *= M;
+        }
+        if (bb.hasRemaining()) {
+            for (int i = 0, n = bb.remaining(); i < n; i++) {
+                h ^= (bb.get() & 0xFFL) << (i << 3);
+            }
+            h *= M;
+        }
+        h ^= h >>> R;
+        h *= M;
+        h ^= h >>> R;
+        return h;
+    }
+
+    @Immutable
+    private static final class Entry {
+
+        private final byte[] compressed;
+        private final ByteBuffer decoded;
+
+        Entry(byte[] compressed, ByteBuffer decoded) {
+            this.compressed = compressed;
+            this.decoded = decoded;
+        }
+
+        boolean matches(byte[] b, int off, int len) {
+            if (compressed.length != len) {
+                return false;
+            }
+            for (int i = 0; i < len; i++) {
+                if (compressed[i] != b[off + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long weight() {
+            return compressed.length + decoded.capacity();
+        }
+    }
+
+    @ThreadSafe
+    private final class Segment {
+
+        @GuardedBy("this")
+        private final LinkedHashMap<Long, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        @GuardedBy("this")
+        private long weight;
+
+        @Nullable
+        synchronized Entry get(long key) {
+            return map.get(key);
+        }
+
+        synchronized void put(long key, Entry entry) {
+            Entry previous = map.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += entry.weight();
+            Iterator<Map.Entry<Long, Entry>> it = map.entrySet().iterator();
+            while (weight > segmentCapacity && it.hasNext()) {
+                weight -= it.next().getValue().weight();
+                it.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized long weight() {
+            return weight;
+        }
+
+        synchronized int count() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+            weight = 0;
+        }
+    }
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Segment[] segments;
+    private final long segmentCapacity;
+    private final boolean direct;
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity maximum total weight in bytes, compressed plus decoded
+     * @param concurrencyLevel number of independently locked segments, rounded up to a power of 2, each of which
+     * holds entries weighing up to its share of the capacity
+     * @param direct true to hold decoded content in direct, off heap buffers
+     */
+    public LZFSECache(long capacity, int concurrencyLevel, boolean direct) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity: " + capacity);
+        }
+        if (concurrencyLevel <= 0 || concurrencyLevel > 1 << 16) {
+            throw new IllegalArgumentException("bad concurrency level: " + concurrencyLevel);
+        }
+        int n = Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        this.segments = new Segment[Math.max(1, n)];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentCapacity = capacity / segments.length;
+        this.direct = direct;
+    }
+
+    /**
+     * Creates an on heap cache with a concurrency level of 16, caching entries of up to 1/16 of the capacity.
+     *
+     * @param capacity maximum total weight in bytes, compressed plus decoded
+     */
+    public LZFSECache(long capacity) {
+        this(capacity, 16, false);
+    }
+
+    /**
+     * Returns the decoded content, decoding and caching it on a miss.
+     *
+     * @param compressed LZFSE stream
+     * @return read only buffer
+     * @throws IOException
+     */
+    @Nonnull
+    public ByteBuffer get(byte[] compressed) throws IOException {
+        return get(compressed, 0, compressed.length);
+    }
+
+    /**
+     * Returns the decoded content, decoding and caching it on a miss.
+     *
+     * @param b
+     * @param off
+     * @param len
+     * @return read only buffer
+     * @throws IOException
+     */
+    @Nonnull
+    public ByteBuffer get(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        long key = hash(b, off, len);
+        Segment segment = segments[(int) (key ^ key >>> 32) & segments.length - 1];
+
+        Entry entry = segment.get(key);
+        if (entry != null && entry.matches(b, off, len)) {
+            hits.increment();
+            return entry.decoded.asReadOnlyBuffer();
+        }
+        misses.increment();
+
+        ByteBuffer decoded = decode(b, off, len);
+        entry = new Entry(Arrays.copyOfRange(b, off, off + len), decoded);
+        if (entry.weight() <= segmentCapacity) {
+            segment.put(key, entry);
+        }
+        return decoded.asReadOnlyBuffer();
+    }
+
+    @Nonnull
+    ByteBuffer decode(byte[] b, int off, int len) throws IOException {
+        // Decodes straight into a buffer sized from the block headers. Streams that fail to scan or decode cleanly,
+        // or that declare more than the presize limit, are decoded again as a stream, which reports any failure.
+        ByteBuffer src = ByteBuffer.wrap(b, off, len);
+        int size = presize(LZFSEDecompressor.decodedSize(src), len);
+        if (size >= 0) {
+            ByteBuffer dst = direct
+                    ? ByteBuffer.allocateDirect(size)
+                    : ByteBuffer.allocate(size);
+            if (LZFSEDecompressor.tryDecompress(src, dst).status() == LZFSEResult.Status.OK) {
+                dst.flip();
+                return dst;
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(b, off, len))) {
+            is.transferTo(baos);
+        }
+        return buffer(baos.toByteArray());
+    }
+
+    static int presize(long size, int len) {
+        // The headers are untrusted, a few bytes may declare gigabytes. Sizes are accepted within a bound on the
+        // compression ratio, allocations otherwise follow the output actually decoded.
+        long limit = Math.min(Integer.MAX_VALUE - 8, Math.max(PRESIZE_MIN, (long) len * PRESIZE_RATIO));
+        return size >= 0 && size <= limit
+                ? (int) size
+                : -1;
+    }
+
+    ByteBuffer buffer(byte[] bs) {
+        if (!direct) {
+            return ByteBuffer.wrap(bs);
+        }
+        ByteBuffer bb = ByteBuffer.allocateDirect(bs.length);
+        bb.put(bs);
+        bb.flip();
+        return bb;
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return hits since creation
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that decoded their content, whether or not it was then cached.
+     *
+     * @return misses since creation
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to bound the weight. Entries removed by {@link #clear()} are not counted.
+     *
+     * @return evictions since creation
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the total weight of cached entries.
+     *
+     * @return weight in bytes, compressed plus decoded
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return number of entries
+     */
+    public int count() {
+        int count = 0;
+        for (Segment segment : segments) {
+            count += segment.count();
+        }
+        return count;
+    }
+
+    /**
+     * Removes all entries. Hit, miss and eviction counts are retained.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSECache{"
+                + "segments=" + segments.length
+                + ", segmentCapacity=" + segmentCapacity
+                + ", direct=" + direct
+                + ", hits=" + hits
+                + ", misses=" + misses
+                + ", evictions=" + evictions
+                + '}';
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Precompiled, immutable LZFSE stream.
+ * <p>
+ * Compilation parses every block header, performs all entropy decoding and validates every match against the output
+ * it references. What remains is the decoded literals and the primitive L/M/D triples, uncompressed blocks being
+ * literal runs. Any number of threads may then reconstitute the output concurrently, running match execution only.
+ * Memory is traded for CPU, a compiled stream occupies roughly its decoded size in literals plus 12 bytes per match.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LZFSECompiledStream implements LZFSEConstants {
+
+    /**
+     * Compiles an LZFSE stream.
+     *
+     * @param is
+     * @return compiled stream
+     * @throws IOException
+     * @throws LZFSEDecoderException if the stream is malformed or decodes to more than 2 GB
+     */
+    @Nonnull
+    public static LZFSECompiledStream compile(@WillNotClose InputStream is) throws IOException, LZFSEDecoderException {
+        return compile(Channels.newChannel(is));
+    }
+
+    /**
+     * Compiles an LZFSE stream.
+     *
+     * @param ch
+     * @return compiled stream
+     * @throws IOException
+     * @throws LZFSEDecoderException if the stream is malformed or decodes to more than 2 GB
+     */
+    @Nonnull
+    public static LZFSECompiledStream compile(@WillNotClose ReadableByteChannel ch)
+            throws IOException, LZFSEDecoderException {
+        Compiler compiler = new Compiler();
+        try {
+            return compiler.compile(new LZFSEInputStream(ch));
+
+        } catch (LZFSEStatusException ex) {
+            throw new LZFSEDecoderException("bad block data at: " + compiler.size);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    @NotThreadSafe
+    private static final class Compiler {
+
+        private byte[] literals = new byte[4096];
+        private int[] ls = new int[1024];
+        private int[] ms = new int[1024];
+        private int[] ds = new int[1024];
+        private int[] blocks = new int[16];
+        private int nLiterals;
+        private int nTriples;
+        private int nBlocks;
+        private long size;
+        private int maxD;
+
+        LZFSECompiledStream compile(LZFSEInputStream is) throws IOException {
+            byte[] buffer = new byte[16384];
+            while (is.nextBlock()) {
+                if (nBlocks == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, nBlocks << 1);
+                }
+                blocks[nBlocks++] = nTriples;
+
+                BlockDecoder decoder = is.decoder();
+                if (decoder instanceof LMDBlockDecoder) {
+                    LMDBlockDecoder lmd = (LMDBlockDecoder) decoder;
+                    while (lmd.next()) {
+                        for (int i = 0; i < lmd.l; i++) {
+                            literal(lmd.literal());
+                        }
+                        triple(lmd.l, lmd.m, lmd.d);
+                        lmd.l = 0;
+                        lmd.m = 0;
+                    }
+                } else {
+                    int n;
+                    while ((n = is.readBlock(buffer, 0, buffer.length)) > 0) {
+                        for (int i = 0; i < n; i++) {
+                            literal(buffer[i]);
+                        }
+                        triple(n, 0, 0);
+                    }
+                }
+            }
+            return new LZFSECompiledStream(
+                    (int) size,
+                    maxD,
+                    Arrays.copyOf(literals, nLiterals),
+                    Arrays.copyOf(ls, nTriples),
+                    Arrays.copyOf(ms, nTriples),
+                    Arrays.copyOf(ds, nTriples),
+                    Arrays.copyOf(blocks, nBlocks));
+        }
+
+        void literal(byte b) {
+            if (nLiterals == literals.length) {
+                literals = Arrays.copyOf(literals, nLiterals << 1);
+            }
+            literals[nLiterals++] = b;
+        }
+
+        void triple(int l, int m, int d) throws LZFSEDecoderException {
+            if (l < 0 || m < 0) {
+                throw new LZFSEDecoderException("bad L/M: " + l + " " + m);
+            }
+            size += l;
+            if (m > 0) {
+                if (d <= 0 || d > size || d > MATCH_BUFFER_SIZE) {
+                    throw new LZFSEDecoderException("bad match distance: " + d);
+                }
+                maxD = Math.max(maxD, d);
+            }
+            size += m;
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new LZFSEDecoderException("decoded size exceeds 2 GB");
+            }
+            if (nTriples == ls.length) {
+                ls = Arrays.copyOf(ls, nTriples << 1);
+                ms = Arrays.copyOf(ms, nTriples << 1);
+                ds = Arrays.copyOf(ds, nTriples << 1);
+            }
+            ls[nTriples] = l;
+            ms[nTriples] = m;
+            ds[nTriples] = d;
+            nTriples++;
+        }
+    }
+
+    @NotThreadSafe
+    private static final class Decoder extends LMDBlockDecoder {
+
+        private final LZFSECompiledStream cs;
+        private int literal;
+        private int triple;
+
+        Decoder(LZFSECompiledStream cs, MatchBuffer mb) {
+            super(mb);
+            this.cs = Objects.requireNonNull(cs);
+            this.budget = cs.size;
+        }
+
+        @Override
+        int rawBytes() {
+            return cs.size;
+        }
+
+        @Override
+        void skipLiterals(int n) {
+            literal += n;
+        }
+
+        @Override
+        void literals(byte[] b, int off, int len) {
+            System.arraycopy(cs.literals, literal, b, off, len);
+            literal += len;
+        }
+
+        @Override
+        byte literal() {
+            return cs.literals[literal++];
+        }
+
+        @Override
+        boolean lmd() {
+            if (triple == cs.ls.length) {
+                return false;
+            }
+            l(cs.ls[triple]);
+            m(cs.ms[triple]);
+            d(cs.ds[triple]);
+            triple++;
+            return true;
+        }
+    }
+
+    private final int size;
+    private final int maxD;
+    private final byte[] literals;
+    private final int[] ls;
+    private final int[] ms;
+    private final int[] ds;
+    private final int[] blocks;
+
+    LZFSECompiledStream(int size, int maxD, byte[] literals, int[] ls, int[] ms, int[] ds, int[] blocks) {
+        this.size = size;
+        this.maxD = maxD;
+        this.literals = Objects.requireNonNull(literals);
+        this.ls = Objects.requireNonNull(ls);
+        this.ms = Objects.requireNonNull(ms);
+        this.ds = Objects.requireNonNull(ds);
+        this.blocks = Objects.requireNonNull(blocks);
+    }
+
+    /**
+     * Returns the decoded size.
+     *
+     * @return decoded size in bytes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of blocks, excluding the end of stream block.
+     *
+     * @return number of blocks
+     */
+    public int blocks() {
+        return blocks.length;
+    }
+
+    /**
+     * Returns the decoded output.
+     *
+     * @return decoded output
+     */
+    @Nonnull
+    public byte[] decode() {
+        byte[] dst = new byte[size];
+        decode(dst, 0);
+        return dst;
+    }
+
+    /**
+     * Decodes into the destination array.
+     *
+     * @param dst
+     * @param off
+     * @return number of bytes decoded, equal to {@link #size()}
+     * @throws IndexOutOfBoundsException if the destination is too small
+     */
+    public int decode(byte[] dst, int off) {
+        if (off < 0 || off > dst.length - size) {
+            throw new IndexOutOfBoundsException();
+        }
+        int o = off;
+        int lp = 0;
+        for (int i = 0, n = ls.length; i < n; i++) {
+            int l = ls[i];
+            System.arraycopy(literals, lp, dst, o, l);
+            lp += l;
+            o += l;
+
+            int m = ms[i];
+            int d = ds[i];
+            if (d >= m) {
+                System.arraycopy(dst, o - d, dst, o, m);
+                o += m;
+            } else {
+                // Overlapping match, pattern expansion.
+                for (int j = o + m; o < j; o++) {
+                    dst[o] = dst[o - d];
+                }
+            }
+        }
+        return o - off;
+    }
+
+    /**
+     * Returns a new input stream over the decoded output.
+     * <p>
+     * The stream retains a match window sized to the largest match distance, at most 256 KB.
+     *
+     * @return input stream
+     */
+    @Nonnull
+    public InputStream newInputStream() {
+        int window = Math.max(16, Integer.highestOneBit(Math.max(1, maxD) - 1) << 1);
+        Decoder decoder = new Decoder(this, new MatchBuffer(window));
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return decoder.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (off < 0 || len < 0 || len > b.length - off) {
+                    throw new IndexOutOfBoundsException();
+                }
+                if (len == 0) {
+                    return 0;
+                }
+                int n = decoder.read(b, off, len);
+                return n == 0 ? -1 : n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                return n > 0 ? decoder.skip(n) : 0;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSECompiledStream{"
+                + "size=" + size
+                + ", blocks=" + blocks.length
+                + ", literals=" + literals.length
+                + ", triples=" + ls.length
+                + ", maxD=" + maxD
+                + '}';
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Non-throwing LZFSE decoding.
+ * <p>
+ * Intended for bulk scanning of candidate data, much of which may not be LZFSE at all. Failures are reported as an
+ * {@link LZFSEResult} status. Unknown block magics are detected before any decoding. Source exhaustion and malformed
+ * block data are signalled internally with preallocated stackless exceptions, so none incur exception construction
+ * costs.
+ * <p>
+ * Instances retain their stream, match buffer, tables and scratch buffers between calls, so once warmed up
+ * {@link #decompress(java.nio.ByteBuffer, java.nio.ByteBuffer)} allocates nothing beyond its result. Instances are
+ * not thread safe, use one per thread.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public final class LZFSEDecompressor implements LZFSEConstants {
+
+    private static final int BUFFER_SIZE = 16384;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ByteBufferSourceChannel ch = new ByteBufferSourceChannel(EMPTY);
+    private final LZFSEInputStream is = new LZFSEInputStream(ch);
+    private final byte[] probe = new byte[1];
+    @Nullable
+    private byte[] buffer;
+
+    public LZFSEDecompressor() {
+        is.signals = true;
+    }
+
+    /**
+     * Decodes the source into the destination using a single use decompressor.
+     * <p>
+     * Convenient for one off calls. Repeated calls should share an instance and use
+     * {@link #decompress(java.nio.ByteBuffer, java.nio.ByteBuffer)}, which avoids allocating a fresh stream and its
+     * buffers each time.
+     *
+     * @param src
+     * @param dst
+     * @return result
+     * @see #decompress(java.nio.ByteBuffer, java.nio.ByteBuffer)
+     */
+    @Nonnull
+    public static LZFSEResult tryDecompress(ByteBuffer src, ByteBuffer dst) {
+        return new LZFSEDecompressor().decompress(src, dst);
+    }
+
+    /**
+     * Decodes the source into the destination.
+     * <p>
+     * The source position is advanced past the consumed input, up to and including the end of stream block on
+     * success. The destination position is advanced past the decoded output, partial on failure.
+     *
+     * @param src
+     * @param dst
+     * @return result
+     */
+    @Nonnull
+    public LZFSEResult decompress(ByteBuffer src, ByteBuffer dst) {
+        int start = src.position();
+        is.reuse(ch.bind(src));
+        if (buffer == null && !dst.hasArray()) {
+            buffer = new byte[BUFFER_SIZE];
+        }
+        long decoded = 0;
+        long offset = 0;
+        int magic = 0;
+        try {
+            while (true) {
+                offset = src.position() - start;
+                magic = 0;
+                if (src.remaining() < 4) {
+                    return new LZFSEResult(LZFSEResult.Status.TRUNCATED, decoded, offset, magic);
+                }
+                magic = magic(src);
+                if (!isMagic(magic)) {
+                    return new LZFSEResult(LZFSEResult.Status.CORRUPT, decoded, offset, magic);
+                }
+                if (!is.nextBlock()) {
+                    return new LZFSEResult(LZFSEResult.Status.OK, decoded, offset, magic);
+                }
+                int n;
+                do {
+                    if (!dst.hasRemaining()) {
+                        if (is.readBlock(probe, 0, 1) == 0) {
+                            break;
+                        }
+                        return new LZFSEResult(LZFSEResult.Status.OVERFLOW, decoded, offset, magic);
+                    }
+                    if (dst.hasArray()) {
+                        n = is.readBlock(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+                        dst.position(dst.position() + n);
+                    } else {
+                        n = is.readBlock(buffer, 0, Math.min(buffer.length, dst.remaining()));
+                        dst.put(buffer, 0, n);
+                    }
+                    decoded += n;
+                } while (n > 0);
+            }
+
+        } catch (LZFSEStatusException ex) {
+            return new LZFSEResult(ex.status(), decoded, offset, magic);
+
+        } catch (IOException | RuntimeException ex) {
+            return new LZFSEResult(LZFSEResult.Status.CORRUPT, decoded, offset, magic);
+        }
+    }
+
+    /**
+     * Returns the decoded size declared by the block headers, without decoding.
+     * <p>
+     * Only the block headers are read, payloads are skipped. The source position is unchanged.
+     *
+     * @param src
+     * @return decoded size, or -1 if the headers do not describe a complete stream
+     */
+    static long decodedSize(ByteBuffer src) {
+        ByteBuffer bb = src.duplicate().order(LITTLE_ENDIAN);
+        long size = 0;
+        while (bb.remaining() >= 4) {
+            int p = bb.position();
+            int magic = bb.getInt(p);
+            if (magic == ENDOFSTREAM_BLOCK_MAGIC) {
+                return size;
+            }
+            // Fixed header fields, through to the V2 packed fields.
+            int nFixedBytes;
+            switch (magic) {
+                case UNCOMPRESSED_BLOCK_MAGIC:
+                    nFixedBytes = 8;
+                    break;
+                case COMPRESSEDLZVN_BLOCK_MAGIC:
+                case COMPRESSEDV1_BLOCK_MAGIC:
+                    nFixedBytes = 12;
+                    break;
+                case COMPRESSEDV2_BLOCK_MAGIC:
+                    nFixedBytes = 32;
+                    break;
+                default:
+                    return -1;
+            }
+            if (bb.remaining() < nFixedBytes) {
+                return -1;
+            }
+            long nRawBytes = bb.getInt(p + 4);
+            long nBlockBytes;
+            switch (magic) {
+                case UNCOMPRESSED_BLOCK_MAGIC:
+                    nBlockBytes = 8 + nRawBytes;
+                    break;
+                case COMPRESSEDLZVN_BLOCK_MAGIC:
+                    nBlockBytes = 12 + (bb.getInt(p + 8) & 0xFFFFFFFFL);
+                    break;
+                case COMPRESSEDV1_BLOCK_MAGIC:
+                    nBlockBytes = 4 + LZFSEBlockHeader.V1_SIZE + (bb.getInt(p + 8) & 0xFFFFFFFFL);
+                    break;
+                default:
+                    nBlockBytes = (bb.getLong(p + 24) & 0xFFFFFFFFL)
+                            + (bb.getLong(p + 8) >>> 20 & 0xFFFFF)
+                            + (bb.getLong(p + 16) >>> 40 & 0xFFFFF);
+            }
+            if (nRawBytes < 0 || nBlockBytes < nFixedBytes || nBlockBytes > bb.remaining()) {
+                return -1;
+            }
+            size += nRawBytes;
+            bb.position(p + (int) nBlockBytes);
+        }
+        return -1;
+    }
+
+    static int magic(ByteBuffer src) {
+        int p = src.position();
+        return (src.get(p) & 0xFF)
+                | (src.get(p + 1) & 0xFF) << 8
+                | (src.get(p + 2) & 0xFF) << 16
+                | (src.get(p + 3) & 0xFF) << 24;
+    }
+
+    static boolean isMagic(int magic) {
+        switch (magic) {
+            case COMPRESSEDV2_BLOCK_MAGIC:
+            case COMPRESSEDV1_BLOCK_MAGIC:
+            case COMPRESSEDLZVN_BLOCK_MAGIC:
+            case UNCOMPRESSED_BLOCK_MAGIC:
+            case ENDOFSTREAM_BLOCK_MAGIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Java Flight Recorder events, baseline. Compiled against the Java 8 API, which lacks jdk.jfr, events are never
+ * available. The Java 17+ variant emits them.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class LZFSEEvents {
+
+    static final boolean AVAILABLE = available();
+
+    static boolean available() {
+        // Not a constant expression, callers compiled against the baseline must not inline it.
+        return false;
+    }
+
+    void open(Object source) {
+    }
+
+    void close(long decoded, boolean eos) {
+    }
+
+    void begin() {
+    }
+
+    void header(String magic, int nRawBytes, int nPayloadBytes, int nLiteralPayloadBytes, int nLmdPayloadBytes) {
+    }
+
+    void tables() {
+    }
+
+    void end() {
+    }
+}
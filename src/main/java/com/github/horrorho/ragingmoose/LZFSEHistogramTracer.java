@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Tracer that builds per block type histograms of literal run lengths, match lengths and match distances.
+ * <p>
+ * Histograms are log 2 bucketed, bucket 0 holds 0 and bucket k values in [2^(k-1), 2^k). Distance reach is reported
+ * relative to the 256 KB match window. Block types are named by magic: bvx-, bvxn, bvx1 and bvx2.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public final class LZFSEHistogramTracer implements LZFSETracer, LZFSEConstants {
+
+    static final int BUCKETS = 33;
+
+    // Distances beyond a quarter window, 64 KB.
+    static final int FAR = MATCH_BUFFER_SIZE >>> 2;
+
+    private static final String[] TYPES = {"bvx-", "bvxn", "bvx1", "bvx2"};
+
+    static int type(int magic) {
+        switch (magic) {
+            case UNCOMPRESSED_BLOCK_MAGIC:
+                return 0;
+            case COMPRESSEDLZVN_BLOCK_MAGIC:
+                return 1;
+            case COMPRESSEDV1_BLOCK_MAGIC:
+                return 2;
+            case COMPRESSEDV2_BLOCK_MAGIC:
+                return 3;
+            default:
+                throw new IllegalArgumentException("bad magic: 0x" + Integer.toHexString(magic));
+        }
+    }
+
+    static int type(String type) {
+        int i = Arrays.asList(TYPES).indexOf(type);
+        if (i == -1) {
+            throw new IllegalArgumentException("bad type: " + type);
+        }
+        return i;
+    }
+
+    static int bucket(int v) {
+        return 32 - Integer.numberOfLeadingZeros(v);
+    }
+
+    private final long[] blocks = new long[TYPES.length];
+    private final long[] rawBytes = new long[TYPES.length];
+    private final long[] payloadBytes = new long[TYPES.length];
+    private final long[] literals = new long[TYPES.length];
+    private final long[] matches = new long[TYPES.length];
+    private final long[] matchBytes = new long[TYPES.length];
+    private final long[] farMatches = new long[TYPES.length];
+    private final long[] maxDistance = new long[TYPES.length];
+    private final long[][] literalRuns = new long[TYPES.length][BUCKETS];
+    private final long[][] matchLengths = new long[TYPES.length][BUCKETS];
+    private final long[][] distances = new long[TYPES.length][BUCKETS];
+
+    private int type;
+
+    @Override
+    public void block(int magic, int nRawBytes, int nPayloadBytes) {
+        type = type(magic);
+        blocks[type]++;
+        rawBytes[type] += nRawBytes;
+        payloadBytes[type] += nPayloadBytes;
+    }
+
+    @Override
+    public void lmd(int l, int m, int d) {
+        literals[type] += l;
+        literalRuns[type][bucket(l)]++;
+        if (m > 0) {
+            matches[type]++;
+            matchBytes[type] += m;
+            if (d > FAR) {
+                farMatches[type]++;
+            }
+            matchLengths[type][bucket(m)]++;
+            distances[type][bucket(d)]++;
+            if (d > maxDistance[type]) {
+                maxDistance[type] = d;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of blocks of the given type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return number of blocks
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long blocks(String type) {
+        return blocks[type(type)];
+    }
+
+    /**
+     * Returns the decoded bytes of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return decoded bytes
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long rawBytes(String type) {
+        return rawBytes[type(type)];
+    }
+
+    /**
+     * Returns the literal bytes of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return literal bytes
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long literals(String type) {
+        return literals[type(type)];
+    }
+
+    /**
+     * Returns the number of matches of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return number of matches
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long matches(String type) {
+        return matches[type(type)];
+    }
+
+    /**
+     * Returns the match bytes of the given block type, the sum of all match lengths.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return match bytes
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long matchBytes(String type) {
+        return matchBytes[type(type)];
+    }
+
+    /**
+     * Returns the longest match distance of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return longest match distance, 0 if none
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    public long maxDistance(String type) {
+        return maxDistance[type(type)];
+    }
+
+    /**
+     * Returns the literal run length histogram of the given block type, including empty runs in bucket 0.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return histogram copy, 33 log 2 buckets
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    @Nonnull
+    public long[] literalRunHistogram(String type) {
+        return literalRuns[type(type)].clone();
+    }
+
+    /**
+     * Returns the match length histogram of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return histogram copy, 33 log 2 buckets
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    @Nonnull
+    public long[] matchLengthHistogram(String type) {
+        return matchLengths[type(type)].clone();
+    }
+
+    /**
+     * Returns the match distance histogram of the given block type.
+     *
+     * @param type block type, bvx-, bvxn, bvx1 or bvx2
+     * @return histogram copy, 33 log 2 buckets
+     * @throws IllegalArgumentException if the type is unknown
+     */
+    @Nonnull
+    public long[] distanceHistogram(String type) {
+        return distances[type(type)].clone();
+    }
+
+    /**
+     * Clears all counts and histograms.
+     */
+    public void reset() {
+        Arrays.fill(blocks, 0);
+        Arrays.fill(rawBytes, 0);
+        Arrays.fill(payloadBytes, 0);
+        Arrays.fill(literals, 0);
+        Arrays.fill(matches, 0);
+        Arrays.fill(matchBytes, 0);
+        Arrays.fill(farMatches, 0);
+        Arrays.fill(maxDistance, 0);
+        for (int i = 0; i < TYPES.length; i++) {
+            Arrays.fill(literalRuns[i], 0);
+            Arrays.fill(matchLengths[i], 0);
+            Arrays.fill(distances[i], 0);
+        }
+    }
+
+    /**
+     * Returns a compact report, one section per block type seen. Histogram rows list non empty buckets as
+     * lower bound:count.
+     *
+     * @return report
+     */
+    @Nonnull
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < TYPES.length; i++) {
+            if (blocks[i] == 0) {
+                continue;
+            }
+            sb.append(TYPES[i])
+                    .append(" blocks=").append(blocks[i])
+                    .append(" raw=").append(rawBytes[i])
+                    .append(" payload=").append(payloadBytes[i]);
+            if (i == 0) {
+                sb.append('\n');
+                continue;
+            }
+            sb.append(" literals=").append(literals[i])
+                    .append(" matches=").append(matches[i])
+                    .append(" matchBytes=").append(matchBytes[i])
+                    .append('\n');
+            row(sb, "  L", literalRuns[i]);
+            row(sb, "  M", matchLengths[i]);
+            row(sb, "  D", distances[i]);
+            sb.append("  window: maxD=").append(maxDistance[i])
+                    .append(String.format(" (%.1f%%)", 100.0 * maxDistance[i] / MATCH_BUFFER_SIZE))
+                    .append(" D>64K=").append(farMatches[i])
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    static void row(StringBuilder sb, String label, long[] histogram) {
+        sb.append(label);
+        for (int k = 0; k < BUCKETS; k++) {
+            if (histogram[k] != 0) {
+                sb.append(' ').append(k == 0 ? 0 : 1L << k - 1).append(':').append(histogram[k]);
+            }
+        }
+        sb.append('\n');
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSEHistogramTracer{" + "blocks=" + Arrays.toString(blocks) + '}';
+    }
+}
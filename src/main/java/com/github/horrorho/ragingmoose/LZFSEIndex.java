@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Block index with periodic checkpoints for random access decoding.
+ * <p>
+ * Records the channel offset and decoded position of every block. Checkpoints additionally hold a snapshot of the
+ * match buffer window at the start of their block, allowing decoding to resume there. Indices may be persisted as
+ * sidecar files with {@link #write(OutputStream)} and {@link #read(InputStream)}.
+ *
+ * @author Ayesha
+ * @see SeekableLZFSEChannel
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LZFSEIndex implements LZFSEConstants {
+
+    public static final long DEFAULT_INTERVAL = 8 << 20;
+
+    private static final int MAGIC = 0x524d4958; // RMIX
+    private static final int VERSION = 1;
+
+    /**
+     * Builds an index with the default checkpoint interval.
+     *
+     * @param ch channel positioned at the start of the LZFSE stream
+     * @return index
+     * @throws IOException
+     * @see #build(SeekableByteChannel, long)
+     */
+    @Nonnull
+    public static LZFSEIndex build(@WillNotClose SeekableByteChannel ch) throws IOException {
+        return build(ch, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Builds an index by decoding the entire stream.
+     * <p>
+     * Checkpoints are placed on the first block boundary at or beyond each interval of decoded bytes. On return the
+     * channel is positioned after the end of stream block.
+     *
+     * @param ch channel positioned at the start of the LZFSE stream
+     * @param interval decoded bytes between checkpoints
+     * @return index
+     * @throws IOException
+     */
+    @Nonnull
+    public static LZFSEIndex build(@WillNotClose SeekableByteChannel ch, long interval) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("bad interval: " + interval);
+        }
+        LZFSEInputStream is = new LZFSEInputStream(ch);
+        byte[] buffer = new byte[16384];
+
+        long[] offsets = new long[16];
+        long[] positions = new long[16];
+        int[] checkpoints = new int[16];
+        byte[][] windows = new byte[16][];
+        int nBlocks = 0;
+        int nCheckpoints = 0;
+
+        long position = 0;
+        long next = 0;
+        while (true) {
+            if (nBlocks == offsets.length) {
+                offsets = Arrays.copyOf(offsets, nBlocks << 1);
+                positions = Arrays.copyOf(positions, nBlocks << 1);
+            }
+            offsets[nBlocks] = ch.position();
+            positions[nBlocks] = position;
+
+            if (position >= next) {
+                if (nCheckpoints == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, nCheckpoints << 1);
+                    windows = Arrays.copyOf(windows, nCheckpoints << 1);
+                }
+                byte[] window = new byte[(int) Math.min(position, MATCH_BUFFER_SIZE)];
+                is.matchBuffer().window(window, 0, window.length);
+                checkpoints[nCheckpoints] = nBlocks;
+                windows[nCheckpoints] = window;
+                nCheckpoints++;
+                next = position + interval;
+            }
+            nBlocks++;
+
+            if (!is.nextBlock()) {
+                break;
+            }
+            int n;
+            while ((n = is.readBlock(buffer, 0, buffer.length)) > 0) {
+                position += n;
+            }
+        }
+        return new LZFSEIndex(
+                Arrays.copyOf(offsets, nBlocks),
+                Arrays.copyOf(positions, nBlocks),
+                Arrays.copyOf(checkpoints, nCheckpoints),
+                Arrays.copyOf(windows, nCheckpoints));
+    }
+
+    /**
+     * Reads an index previously written with {@link #write(OutputStream)}.
+     * <p>
+     * Sidecar files are untrusted. Offsets and positions must strictly increase, checkpoints must start at the first
+     * block and strictly increase, and each window must span the match buffer history at its checkpoint. Arrays grow
+     * with the entries actually read, counts alone never size an allocation.
+     *
+     * @param is
+     * @return index
+     * @throws IOException
+     * @throws LZFSEDecoderException if the index is malformed
+     */
+    @Nonnull
+    public static LZFSEIndex read(@WillNotClose InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(is);
+        if (dis.readInt() != MAGIC) {
+            throw new LZFSEDecoderException("not an LZFSE index");
+        }
+        int version = dis.readInt();
+        if (version != VERSION) {
+            throw new LZFSEDecoderException("unsupported LZFSE index version: " + version);
+        }
+        int nBlocks = dis.readInt();
+        if (nBlocks <= 0) {
+            throw new LZFSEDecoderException("bad LZFSE index block count: " + nBlocks);
+        }
+        long[] offsets = new long[Math.min(nBlocks, 16)];
+        long[] positions = new long[offsets.length];
+        for (int i = 0; i < nBlocks; i++) {
+            if (i == offsets.length) {
+                offsets = Arrays.copyOf(offsets, (int) Math.min(nBlocks, (long) i << 1));
+                positions = Arrays.copyOf(positions, offsets.length);
+            }
+            offsets[i] = dis.readLong();
+            positions[i] = dis.readLong();
+            if (i == 0
+                    ? offsets[i] < 0 || positions[i] != 0
+                    : offsets[i] <= offsets[i - 1] || positions[i] <= positions[i - 1]) {
+                throw new LZFSEDecoderException("bad LZFSE index block: " + i);
+            }
+        }
+        int nCheckpoints = dis.readInt();
+        if (nCheckpoints <= 0 || nCheckpoints > nBlocks) {
+            throw new LZFSEDecoderException("bad LZFSE index checkpoint count: " + nCheckpoints);
+        }
+        int[] checkpoints = new int[nCheckpoints];
+        byte[][] windows = new byte[nCheckpoints][];
+        for (int i = 0; i < nCheckpoints; i++) {
+            checkpoints[i] = dis.readInt();
+            int length = dis.readInt();
+            if (i == 0
+                    ? checkpoints[i] != 0
+                    : checkpoints[i] <= checkpoints[i - 1] || checkpoints[i] >= nBlocks) {
+                throw new LZFSEDecoderException("bad LZFSE index checkpoint: " + i);
+            }
+            if (length != Math.min(positions[checkpoints[i]], MATCH_BUFFER_SIZE)) {
+                throw new LZFSEDecoderException("bad LZFSE index checkpoint window: " + i);
+            }
+            windows[i] = new byte[length];
+            dis.readFully(windows[i]);
+        }
+        return new LZFSEIndex(offsets, positions, checkpoints, windows);
+    }
+
+    private final long[] offsets;
+    private final long[] positions;
+    private final int[] checkpoints;
+    private final byte[][] windows;
+
+    LZFSEIndex(long[] offsets, long[] positions, int[] checkpoints, byte[][] windows) {
+        this.offsets = Objects.requireNonNull(offsets);
+        this.positions = Objects.requireNonNull(positions);
+        this.checkpoints = Objects.requireNonNull(checkpoints);
+        this.windows = Objects.requireNonNull(windows);
+    }
+
+    /**
+     * Writes this index.
+     *
+     * @param os
+     * @throws IOException
+     */
+    public void write(@WillNotClose OutputStream os) throws IOException {
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(offsets.length);
+        for (int i = 0; i < offsets.length; i++) {
+            dos.writeLong(offsets[i]);
+            dos.writeLong(positions[i]);
+        }
+        dos.writeInt(checkpoints.length);
+        for (int i = 0; i < checkpoints.length; i++) {
+            dos.writeInt(checkpoints[i]);
+            dos.writeInt(windows[i].length);
+            dos.write(windows[i]);
+        }
+        dos.flush();
+    }
+
+    /**
+     * Returns the decoded size of the stream.
+     *
+     * @return decoded size in bytes
+     */
+    public long size() {
+        // The final entry is the end of stream block.
+        return positions[positions.length - 1];
+    }
+
+    /**
+     * Returns the number of blocks, excluding the end of stream block.
+     *
+     * @return number of blocks
+     */
+    public int blocks() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of checkpoints.
+     *
+     * @return number of checkpoints
+     */
+    public int checkpoints() {
+        return checkpoints.length;
+    }
+
+    int checkpoint(long position) {
+        int lo = 0;
+        int hi = checkpoints.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (positions[checkpoints[mid]] <= position) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    long checkpointOffset(int checkpoint) {
+        return offsets[checkpoints[checkpoint]];
+    }
+
+    long checkpointPosition(int checkpoint) {
+        return positions[checkpoints[checkpoint]];
+    }
+
+    @Nonnull
+    byte[] checkpointWindow(int checkpoint) {
+        return windows[checkpoint];
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSEIndex{"
+                + "blocks=" + blocks()
+                + ", checkpoints=" + checkpoints()
+                + ", size=" + size()
+                + '}';
+    }
+}
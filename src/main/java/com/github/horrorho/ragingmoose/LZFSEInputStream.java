@@ -25,12 +25,18 @@ package com.github.horrorho.ragingmoose;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import static java.lang.Integer.toHexString;
 import java.nio.ByteBuffer;
 import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.zip.Checksum;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -44,11 +50,28 @@ import javax.annotation.concurrent.NotThreadSafe;
 @ParametersAreNonnullByDefault
 public class LZFSEInputStream extends InputStream implements LZFSEConstants {
 
+    private static final int TRANSFER_BUFFER_SIZE = 16384;
+
     private final ByteBuffer word = ByteBuffer.allocate(4).order(LITTLE_ENDIAN);
-    private final ReadableByteChannel ch;
+    private ReadableByteChannel ch;
 
     private boolean eos = false;
 
+    // Decoded bytes, bytes pending replay from the match buffer and the mark, all relative to stream start.
+    private long head;
+    private int replay;
+    private long mark = -1;
+
+    // Decoded output hashes and their expected values, if any.
+    @Nullable
+    private Checksum checksum;
+    private long expectedChecksum;
+    private boolean checkChecksum;
+    @Nullable
+    private MessageDigest digest;
+    @Nullable
+    private byte[] expectedDigest;
+
     @Nullable
     private MatchBuffer mb;
     @Nullable
@@ -67,36 +90,322 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
     @Nullable
     private BlockDecoder decoder;
 
+    @Nullable
+    private ByteBuffer transferBuffer;
+
+    // Metrics, the current block's and this stream's totals, null unless enabled.
+    @Nullable
+    private final long[] block = LZFSEMetrics.ENABLED ? new long[LZFSEMetrics.COUNTERS] : null;
+    @Nullable
+    private final long[] totals = LZFSEMetrics.ENABLED ? new long[LZFSEMetrics.COUNTERS] : null;
+    private long nanos;
+
+    @Nullable
+    private LZFSETracer tracer;
+
+    // Passes LZFSEStatusException signals through to the caller, as LZFSEDecompressor expects, rather than mapping
+    // them to conventional exceptions.
+    boolean signals;
+
+    // Flight recorder events, null if jdk.jfr is unavailable.
+    @Nullable
+    private final LZFSEEvents events = LZFSEEvents.AVAILABLE ? new LZFSEEvents() : null;
+
     public LZFSEInputStream(InputStream is) {
         this(Channels.newChannel(is));
     }
 
     public LZFSEInputStream(ReadableByteChannel ch) {
         this.ch = Objects.requireNonNull(ch);
+        if (events != null) {
+            events.open(ch);
+        }
+    }
+
+    /**
+     * Reinitialises this stream over a new source.
+     * <p>
+     * Block decoders, their tables and buffers and the match buffer are retained. Once warmed up over a given mix of
+     * block types, reused streams decode without allocating. The match buffer is cleared, the mark is invalidated and
+     * any checksum or digest is detached. The previous source is not closed.
+     *
+     * @param ch
+     * @return this stream
+     */
+    @Nonnull
+    public LZFSEInputStream reuse(ReadableByteChannel ch) {
+        Objects.requireNonNull(ch);
+        if (events != null) {
+            events.close(head, eos);
+            events.open(ch);
+        }
+        this.ch = ch;
+        eos = false;
+        decoder = null;
+        head = 0;
+        replay = 0;
+        mark = -1;
+        checksum = null;
+        checkChecksum = false;
+        digest = null;
+        expectedDigest = null;
+        if (mb != null) {
+            mb.clear();
+        }
+        if (LZFSEMetrics.ENABLED) {
+            flush();
+            Arrays.fill(totals, 0);
+        }
+        return this;
+    }
+
+    /**
+     * Returns a snapshot of this stream's metrics, including the block in progress. Reused streams report from their
+     * last {@link #reuse(java.nio.channels.ReadableByteChannel)}.
+     *
+     * @return snapshot, all zero unless metrics are enabled
+     * @see LZFSEMetrics
+     */
+    @Nonnull
+    public LZFSEStats stats() {
+        if (!LZFSEMetrics.ENABLED) {
+            return LZFSEStats.EMPTY;
+        }
+        long[] counts = totals.clone();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += block[i];
+        }
+        return new LZFSEStats(counts);
+    }
+
+    void flush() {
+        // Folds the current block's metrics into the stream and global totals.
+        for (int i = 0; i < block.length; i++) {
+            totals[i] += block[i];
+        }
+        LZFSEMetrics.global().add(block);
+        Arrays.fill(block, 0);
+    }
+
+    void header(int type, long nCompressedBytes, long nRawBytes) {
+        long t = System.nanoTime();
+        block[type]++;
+        block[LZFSEMetrics.COMPRESSED_BYTES] += nCompressedBytes;
+        block[LZFSEMetrics.DECODED_BYTES] += nRawBytes;
+        block[LZFSEMetrics.HEADER_NANOS] += t - nanos;
+        nanos = t;
+    }
+
+    void tables() {
+        block[LZFSEMetrics.TABLE_NANOS] += System.nanoTime() - nanos;
+    }
+
+    /**
+     * Attaches a decode tracer, called with each block header and L/M/D triple as decoded. Tracers remain attached
+     * across {@link #reuse(java.nio.channels.ReadableByteChannel)}.
+     *
+     * @param tracer tracer, or null to detach
+     * @return this stream
+     * @see LZFSEHistogramTracer
+     */
+    @Nonnull
+    public LZFSEInputStream tracer(@Nullable LZFSETracer tracer) {
+        this.tracer = tracer;
+        if (lzfseBlockDecoder != null) {
+            lzfseBlockDecoder.tracer = tracer;
+        }
+        if (lzvnBlockDecoder != null) {
+            lzvnBlockDecoder.tracer = tracer;
+        }
+        return this;
+    }
+
+    /**
+     * Attaches a checksum, updated with the decoded output as it is produced.
+     * <p>
+     * Literal and match runs are fed to the checksum in the spans they are read in, whilst still hot in cache. Skipped
+     * and transferred output is decoded through an intermediate buffer and included. Replayed output, following a
+     * {@link #reset()}, is not hashed twice.
+     *
+     * @param checksum
+     * @return this stream
+     * @throws IllegalStateException if decoded output has already been read
+     */
+    @Nonnull
+    public LZFSEInputStream checksum(Checksum checksum) {
+        attach();
+        this.checksum = Objects.requireNonNull(checksum);
+        this.checkChecksum = false;
+        return this;
+    }
+
+    /**
+     * Attaches a checksum, as {@link #checksum(java.util.zip.Checksum)}, with the expected value checked on reaching
+     * the end of stream.
+     *
+     * @param checksum
+     * @param expected
+     * @return this stream
+     * @throws IllegalStateException if decoded output has already been read
+     */
+    @Nonnull
+    public LZFSEInputStream checksum(Checksum checksum, long expected) {
+        checksum(checksum);
+        this.expectedChecksum = expected;
+        this.checkChecksum = true;
+        return this;
+    }
+
+    /**
+     * Attaches a message digest, updated with the decoded output as it is produced.
+     *
+     * @param digest
+     * @return this stream
+     * @throws IllegalStateException if decoded output has already been read
+     * @see #checksum(java.util.zip.Checksum)
+     */
+    @Nonnull
+    public LZFSEInputStream digest(MessageDigest digest) {
+        attach();
+        this.digest = Objects.requireNonNull(digest);
+        this.expectedDigest = null;
+        return this;
+    }
+
+    /**
+     * Attaches a message digest, as {@link #digest(java.security.MessageDigest)}, with the expected digest checked on
+     * reaching the end of stream. The digest is completed, and so reset, by the check.
+     *
+     * @param digest
+     * @param expected
+     * @return this stream
+     * @throws IllegalStateException if decoded output has already been read
+     */
+    @Nonnull
+    public LZFSEInputStream digest(MessageDigest digest, byte[] expected) {
+        digest(digest);
+        this.expectedDigest = expected.clone();
+        return this;
+    }
+
+    void attach() {
+        if (head != 0) {
+            throw new IllegalStateException("decoded output has already been read");
+        }
+    }
+
+    boolean hashing() {
+        return checksum != null || digest != null;
+    }
+
+    void hash(int b) {
+        if (checksum != null) {
+            checksum.update(b);
+        }
+        if (digest != null) {
+            digest.update((byte) b);
+        }
+    }
+
+    void hash(byte[] b, int off, int len) {
+        if (checksum != null) {
+            checksum.update(b, off, len);
+        }
+        if (digest != null) {
+            digest.update(b, off, len);
+        }
+    }
+
+    /**
+     * Closes this stream. The underlying channel is not closed.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (events != null) {
+            events.close(head, eos);
+        }
+        super.close();
     }
 
     @Override
     public int available() {
-        return eos ? 0 : 1;
+        return replay > 0
+                ? replay
+                : eos ? 0 : 1;
+    }
+
+    /**
+     * Marks the current position.
+     * <p>
+     * Marked bytes are replayed from the match buffer history, the read limit is capped to the match window size of
+     * 256 KB.
+     *
+     * @param readlimit
+     */
+    @Override
+    public void mark(int readlimit) {
+        mark = head - replay;
+    }
+
+    /**
+     * Repositions this stream to the last marked position.
+     *
+     * @throws IOException if the stream has not been marked or more than 256 KB has been read since the mark
+     */
+    @Override
+    public void reset() throws IOException {
+        if (mark < 0) {
+            throw new IOException("mark not set");
+        }
+        if (head - mark > MATCH_BUFFER_SIZE) {
+            throw new IOException("mark invalidated, read limit exceeded");
+        }
+        replay = (int) (head - mark);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    long position() {
+        // Decoded position of the next byte read, relative to stream start.
+        return head - replay;
+    }
+
+    boolean marked() {
+        return mark >= 0 && head - mark <= MATCH_BUFFER_SIZE;
     }
 
     @Override
     public int read() throws IOException {
+        if (replay > 0) {
+            return mb.peek(replay--) & 0xFF;
+        }
         try {
             while (!eos) {
                 if (decoder == null) {
                     next();
                 } else {
-                    int b = decoder.read();
+                    int b = decode();
                     if (b == -1) {
                         decoder = null;
                     } else {
+                        head++;
+                        if (hashing()) {
+                            hash(b);
+                        }
                         return b;
                     }
                 }
             }
             return -1;
             
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
         } catch (RuntimeException ex) {
             throw new LZFSEDecoderException("internal error", ex);
         }
@@ -110,26 +419,347 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
         if (len == 0) {
             return 0;
         }
+        if (replay > 0) {
+            int n = Math.min(replay, len);
+            mb.copy(replay, b, off, n);
+            replay -= n;
+            return n;
+        }
         try {
             while (!eos) {
                 if (decoder == null) {
                     next();
                 } else {
-                    int n = decoder.read(b, off, len);
+                    int n = decode(b, off, len);
                     if (n == 0) {
                         decoder = null;
+                    } else {
+                        if (hashing()) {
+                            hash(b, off, n);
+                        }
+                        head += n;
+                        return n;
                     }
-                    return n;
                 }
             }
             return -1;
             
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
         } catch (RuntimeException ex) {
             throw new LZFSEDecoderException("internal error", ex);
         }
     }
 
+    /**
+     * Skips over and discards n bytes of decoded data.
+     * <p>
+     * Skipped output is not copied, literals and matches run into the match buffer only. With
+     * {@link SeekableByteChannel} sources, uncompressed payloads beyond the reach of later matches are seeked over and
+     * blocks whose output can never be referenced, those before the end of stream or before an uncompressed block
+     * spanning the match window, are bypassed on their headers alone. The latter is suspended whilst a mark is valid.
+     * With a checksum or digest attached, skipped output is decoded through an intermediate buffer and hashed.
+     *
+     * @param n
+     * @return the actual number of bytes skipped
+     * @throws IOException
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long remaining = n;
+        if (replay > 0) {
+            int k = (int) Math.min(replay, remaining);
+            replay -= k;
+            remaining -= k;
+        }
+        if (hashing()) {
+            return n - remaining + skipHashed(remaining);
+        }
+        try {
+            // Block headers are walked once, up to the target, at the first block boundary.
+            boolean walk = ch instanceof SeekableByteChannel && !marked();
+            while (remaining > 0 && !eos) {
+                if (decoder == null) {
+                    long k = 0;
+                    if (walk) {
+                        walk = false;
+                        k = skipBlocks((SeekableByteChannel) ch, remaining);
+                    }
+                    if (k == 0) {
+                        next();
+                    } else {
+                        head += k;
+                        remaining -= k;
+                    }
+                } else {
+                    long k = decoder.skip(remaining);
+                    if (k == 0) {
+                        decoder = null;
+                    } else {
+                        head += k;
+                        remaining -= k;
+                    }
+                }
+            }
+            return n - remaining;
+
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    long skipHashed(long n) throws IOException {
+        byte[] b = transferBuffer().array();
+        long remaining = n;
+        while (remaining > 0) {
+            int k = read(b, 0, (int) Math.min(remaining, b.length));
+            if (k == -1) {
+                break;
+            }
+            remaining -= k;
+        }
+        return n - remaining;
+    }
+
+    long skipBlocks(SeekableByteChannel sbc, long n) throws IOException {
+        // Walks block headers ahead to the block containing the skip target. Blocks preceding the last barrier, either
+        // the end of stream or an uncompressed block that spans the match window, are never referenced.
+        long start = sbc.position();
+        long position = start;
+        long skipped = 0;
+        long barrier = start;
+        long barrierSkipped = 0;
+        while (true) {
+            sbc.position(position);
+            int magic = magic();
+            long nRawBytes;
+            long nPayloadBytes;
+            if (magic == ENDOFSTREAM_BLOCK_MAGIC) {
+                barrier = position;
+                barrierSkipped = skipped;
+                break;
+
+            } else if (magic == UNCOMPRESSED_BLOCK_MAGIC) {
+                nRawBytes = rawBlockHeader().load(ch).nRawBytes();
+                nPayloadBytes = nRawBytes;
+                if (nRawBytes >= MATCH_BUFFER_SIZE) {
+                    barrier = position;
+                    barrierSkipped = skipped;
+                }
+
+            } else if (magic == COMPRESSEDLZVN_BLOCK_MAGIC) {
+                lzvnBlockHeader().load(ch);
+                nRawBytes = lzvnBlockHeader.nRawBytes();
+                nPayloadBytes = lzvnBlockHeader.nPayloadBytes();
+
+            } else if (magic == COMPRESSEDV1_BLOCK_MAGIC || magic == COMPRESSEDV2_BLOCK_MAGIC) {
+                if (magic == COMPRESSEDV1_BLOCK_MAGIC) {
+                    lzfseBlockHeader().loadV1(ch);
+                } else {
+                    lzfseBlockHeader().loadV2(ch);
+                }
+                nRawBytes = lzfseBlockHeader.nRawBytes();
+                nPayloadBytes = (long) lzfseBlockHeader.nLiteralPayloadBytes() + lzfseBlockHeader.nLmdPayloadBytes();
+
+            } else {
+                // Bad block, left for next() to report.
+                break;
+            }
+            if (skipped + nRawBytes > n) {
+                break;
+            }
+            skipped += nRawBytes;
+            position = sbc.position() + nPayloadBytes;
+        }
+        sbc.position(barrier);
+        return barrierSkipped;
+    }
+
+    /**
+     * Reads all remaining bytes from this stream and writes them to the target channel.
+     * <p>
+     * Uncompressed block payloads are passed through without intermediate copies where possible, unless a checksum or
+     * digest is attached.
+     *
+     * @param target
+     * @return number of bytes transferred
+     * @throws IOException
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        Objects.requireNonNull(target);
+        try {
+            ByteBuffer bb = transferBuffer();
+            long n = 0;
+            while (replay > 0) {
+                int k = read(bb.array(), 0, bb.capacity());
+                bb.position(0).limit(k);
+                IO.writeFully(target, bb);
+                n += k;
+            }
+            while (!eos) {
+                if (decoder == null) {
+                    next();
+                } else if (decoder == rawBlockDecoder && !hashing()) {
+                    long k = rawBlockDecoder.transferTo(target);
+                    decoder = null;
+                    head += k;
+                    n += k;
+                } else {
+                    int k = decode(bb.array(), 0, bb.capacity());
+                    if (k == 0) {
+                        decoder = null;
+                    } else {
+                        if (hashing()) {
+                            hash(bb.array(), 0, k);
+                        }
+                        bb.position(0).limit(k);
+                        IO.writeFully(target, bb);
+                        head += k;
+                        n += k;
+                    }
+                }
+            }
+            return n;
+
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    /**
+     * Reads all remaining bytes from this stream and writes them to the output stream.
+     *
+     * @param out
+     * @return number of bytes transferred
+     * @throws IOException
+     * @see #transferTo(java.nio.channels.WritableByteChannel)
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        return transferTo(Channels.newChannel(out));
+    }
+
+    @Nonnull
+    IOException status(LZFSEStatusException ex) {
+        return signals || ex != LZFSEStatusException.CORRUPT
+                ? ex
+                : new LZFSEDecoderException("bad block data at: " + head);
+    }
+
+    /**
+     * Restarts decoding at a block boundary with the given history. The underlying channel must have been positioned
+     * on the block.
+     *
+     * @param window history preceding the block
+     * @param position decoded position of the block, relative to stream start
+     */
+    void restart(byte[] window, long position) {
+        eos = false;
+        decoder = null;
+        head = position;
+        replay = 0;
+        mark = -1;
+        matchBuffer().clear();
+        matchBuffer().write(window, 0, window.length);
+    }
+
+    /**
+     * Advances to the next block.
+     *
+     * @return false if the end of stream block has been reached
+     * @throws IOException
+     */
+    boolean nextBlock() throws IOException {
+        try {
+            if (!eos) {
+                next();
+            }
+            return !eos;
+
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    @Nullable
+    BlockDecoder decoder() {
+        return decoder;
+    }
+
+    /**
+     * Reads from the current block only.
+     *
+     * @param b
+     * @param off
+     * @param len
+     * @return the number of bytes read, 0 if the block is exhausted
+     * @throws IOException
+     */
+    int readBlock(byte[] b, int off, int len) throws IOException {
+        try {
+            int n = decoder == null
+                    ? 0
+                    : decode(b, off, len);
+            if (n == 0) {
+                decoder = null;
+            } else if (hashing()) {
+                hash(b, off, n);
+            }
+            head += n;
+            return n;
+
+        } catch (LZFSEStatusException ex) {
+            throw status(ex);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    int decode() throws IOException {
+        // Dispatches on the concrete decoder, each block type reaches its read loop through its own monomorphic call
+        // site rather than a single megamorphic interface call.
+        if (decoder == lzfseBlockDecoder) {
+            return lzfseBlockDecoder.read();
+        } else if (decoder == lzvnBlockDecoder) {
+            return lzvnBlockDecoder.read();
+        } else if (decoder == rawBlockDecoder) {
+            return rawBlockDecoder.read();
+        }
+        return decoder.read();
+    }
+
+    int decode(byte[] b, int off, int len) throws IOException {
+        if (decoder == lzfseBlockDecoder) {
+            return lzfseBlockDecoder.read(b, off, len);
+        } else if (decoder == lzvnBlockDecoder) {
+            return lzvnBlockDecoder.read(b, off, len);
+        } else if (decoder == rawBlockDecoder) {
+            return rawBlockDecoder.read(b, off, len);
+        }
+        return decoder.read(b, off, len);
+    }
+
     void next() throws IOException {
+        if (LZFSEMetrics.ENABLED) {
+            flush();
+            nanos = System.nanoTime();
+        }
+        if (events != null) {
+            events.begin();
+        }
         int magic = magic();
         switch (magic) {
             case COMPRESSEDV2_BLOCK_MAGIC:
@@ -155,34 +785,110 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
     void v1Block() throws IOException, LZFSEDecoderException {
         lzfseBlockHeader()
                 .loadV1(ch);
+        if (LZFSEMetrics.ENABLED) {
+            header(LZFSEMetrics.V1_BLOCKS, lzfseBlockHeader);
+        }
+        if (tracer != null) {
+            tracer.block(COMPRESSEDV1_BLOCK_MAGIC, lzfseBlockHeader.nRawBytes(), lzfseBlockHeader.nPayloadBytes());
+        }
+        if (events != null) {
+            events.header("bvx1", lzfseBlockHeader.nRawBytes(), lzfseBlockHeader.nPayloadBytes(),
+                    lzfseBlockHeader.nLiteralPayloadBytes(), lzfseBlockHeader.nLmdPayloadBytes());
+        }
         decoder = lzfseBlockDecoder()
                 .init(lzfseBlockHeader, ch);
+        if (LZFSEMetrics.ENABLED) {
+            tables();
+        }
+        if (events != null) {
+            events.tables();
+        }
     }
 
     void v2Block() throws IOException, LZFSEDecoderException {
         lzfseBlockHeader()
                 .loadV2(ch);
+        if (LZFSEMetrics.ENABLED) {
+            header(LZFSEMetrics.V2_BLOCKS, lzfseBlockHeader);
+        }
+        if (tracer != null) {
+            tracer.block(COMPRESSEDV2_BLOCK_MAGIC, lzfseBlockHeader.nRawBytes(), lzfseBlockHeader.nPayloadBytes());
+        }
+        if (events != null) {
+            events.header("bvx2", lzfseBlockHeader.nRawBytes(), lzfseBlockHeader.nPayloadBytes(),
+                    lzfseBlockHeader.nLiteralPayloadBytes(), lzfseBlockHeader.nLmdPayloadBytes());
+        }
         decoder = lzfseBlockDecoder()
                 .init(lzfseBlockHeader, ch);
+        if (LZFSEMetrics.ENABLED) {
+            tables();
+        }
+        if (events != null) {
+            events.tables();
+        }
+    }
+
+    void header(int type, LZFSEBlockHeader header) {
+        header(type, (long) header.nHeaderBytes() + header.nPayloadBytes(), header.nRawBytes());
     }
 
     void vnBlock() throws IOException {
         lzvnBlockHeader()
                 .load(ch);
+        if (LZFSEMetrics.ENABLED) {
+            header(LZFSEMetrics.LZVN_BLOCKS, 12L + lzvnBlockHeader.nPayloadBytes(), lzvnBlockHeader.nRawBytes());
+        }
+        if (tracer != null) {
+            tracer.block(COMPRESSEDLZVN_BLOCK_MAGIC, lzvnBlockHeader.nRawBytes(), lzvnBlockHeader.nPayloadBytes());
+        }
+        if (events != null) {
+            events.header("bvxn", lzvnBlockHeader.nRawBytes(), lzvnBlockHeader.nPayloadBytes(), 0, 0);
+        }
         decoder = lzvnBlockDecoder()
                 .init(lzvnBlockHeader, ch);
+        if (LZFSEMetrics.ENABLED) {
+            tables();
+        }
+        if (events != null) {
+            events.tables();
+        }
     }
 
     void raw() throws IOException {
         rawBlockHeader()
                 .load(ch);
+        if (LZFSEMetrics.ENABLED) {
+            header(LZFSEMetrics.RAW_BLOCKS, 8L + rawBlockHeader.nRawBytes(), rawBlockHeader.nRawBytes());
+        }
+        if (tracer != null) {
+            tracer.block(UNCOMPRESSED_BLOCK_MAGIC, rawBlockHeader.nRawBytes(), rawBlockHeader.nRawBytes());
+        }
+        if (events != null) {
+            events.header("bvx-", rawBlockHeader.nRawBytes(), rawBlockHeader.nRawBytes(), 0, 0);
+        }
         decoder = rawBlockDecoder()
                 .init(rawBlockHeader, ch);
+        if (events != null) {
+            events.tables();
+        }
     }
 
-    void eosBlock() {
+    void eosBlock() throws LZFSEDecoderException {
         eos = true;
         decoder = null;
+        if (LZFSEMetrics.ENABLED) {
+            block[LZFSEMetrics.COMPRESSED_BYTES] += 4;
+            flush();
+        }
+        if (events != null) {
+            events.end();
+        }
+        if (checksum != null && checkChecksum && checksum.getValue() != expectedChecksum) {
+            throw new LZFSEDecoderException("checksum mismatch");
+        }
+        if (digest != null && expectedDigest != null && !MessageDigest.isEqual(expectedDigest, digest.digest())) {
+            throw new LZFSEDecoderException("digest mismatch");
+        }
     }
 
     @Nonnull
@@ -197,6 +903,8 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
     LZFSEBlockDecoder lzfseBlockDecoder() throws LZFSEDecoderException {
         if (lzfseBlockDecoder == null) {
             lzfseBlockDecoder = new LZFSEBlockDecoder(matchBuffer());
+            lzfseBlockDecoder.counts = block;
+            lzfseBlockDecoder.tracer = tracer;
         }
         return lzfseBlockDecoder;
     }
@@ -213,6 +921,8 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
     LZVNBlockDecoder lzvnBlockDecoder() {
         if (lzvnBlockDecoder == null) {
             lzvnBlockDecoder = new LZVNBlockDecoder(matchBuffer());
+            lzvnBlockDecoder.counts = block;
+            lzvnBlockDecoder.tracer = tracer;
         }
         return lzvnBlockDecoder;
     }
@@ -228,11 +938,19 @@ public class LZFSEInputStream extends InputStream implements LZFSEConstants {
     @Nonnull
     RawBlockDecoder rawBlockDecoder() {
         if (rawBlockDecoder == null) {
-            rawBlockDecoder = new RawBlockDecoder();
+            rawBlockDecoder = new RawBlockDecoder(matchBuffer());
         }
         return rawBlockDecoder;
     }
 
+    @Nonnull
+    ByteBuffer transferBuffer() {
+        if (transferBuffer == null) {
+            transferBuffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+        }
+        return transferBuffer;
+    }
+
     @Nonnull
     MatchBuffer matchBuffer() {
         if (mb == null) {
@@ -41,21 +41,26 @@ import javax.annotation.concurrent.NotThreadSafe;
 @ParametersAreNonnullByDefault
 class LZFSELiteralDecoder {
 
+    private static final int GROUP_SIZE = 64;
+
     private final TANS<TANS.Entry> tans;
     private final TANS.State state0;
     private final TANS.State state1;
     private final TANS.State state2;
     private final TANS.State state3;
 
+    private final BitInStream in = new BitInStream();
+
     @Nullable
     private ByteBuffer bb;
 
+    private int nDecoded;
     private int nLiteralPayloadBytes;
     private int nLiterals;
     private int literalBits;
 
     LZFSELiteralDecoder(int nStates) throws LZFSEDecoderException {
-        this.tans = new TANS<>(nStates, TANS.Entry::new, TANS.Entry[]::new);
+        this.tans = new TANS<>(TANS.entries(nStates));
         this.state0 = new TANS.State();
         this.state1 = new TANS.State();
         this.state2 = new TANS.State();
@@ -96,32 +101,46 @@ class LZFSELiteralDecoder {
     }
 
     @Nonnull
-    LZFSELiteralDecoder decodeInto(@WillNotClose ReadableByteChannel ch, byte[] literals)
-            throws IOException, LZFSEDecoderException {
+    LZFSELiteralDecoder init(@WillNotClose ReadableByteChannel ch) throws IOException, LZFSEDecoderException {
         initBuffer();
         IO.readFully(ch, bb);
-        BitInStream in = new BitInStream(bb)
-                .init(literalBits);
-
-        for (int i = 0; i < nLiterals; i += 4) {
-            in.fill();
-            literals[i + 0] = tans.transition(state0, in).symbol();
-            literals[i + 1] = tans.transition(state1, in).symbol();
-            literals[i + 2] = tans.transition(state2, in).symbol();
-            literals[i + 3] = tans.transition(state3, in).symbol();
-        }
+        in.init(bb, literalBits);
+        nDecoded = 0;
         return this;
     }
 
-    @Nonnull
+    /**
+     * Decodes literals, in groups, until at least the first n literals are available.
+     *
+     * @param literals
+     * @param n
+     * @return number of literals decoded
+     * @throws LZFSEDecoderException
+     */
+    int decodeInto(byte[] literals, int n) throws LZFSEDecoderException {
+        if (n > nDecoded) {
+            int to = Math.min(Math.max(n, nDecoded + GROUP_SIZE), nLiterals);
+            int i = nDecoded;
+            for (; i < to; i += 4) {
+                in.fill();
+                literals[i + 0] = tans.transition(state0, in).symbol();
+                literals[i + 1] = tans.transition(state1, in).symbol();
+                literals[i + 2] = tans.transition(state2, in).symbol();
+                literals[i + 3] = tans.transition(state3, in).symbol();
+            }
+            nDecoded = i;
+        }
+        return nDecoded;
+    }
+
     void initBuffer() {
         int capacity = 8 + nLiteralPayloadBytes;
         if (bb == null || bb.capacity() < capacity) {
-            bb = ByteBuffer.allocate(capacity).order(LITTLE_ENDIAN);
-        } else {
-            bb.limit(capacity);
+            bb = ByteBuffer.allocate(bb == null ? capacity : Math.max(capacity, bb.capacity() << 1))
+                    .order(LITTLE_ENDIAN);
         }
-        bb.position(8);
+        bb.limit(capacity)
+                .position(8);
     }
 
     @Override
@@ -132,6 +151,7 @@ class LZFSELiteralDecoder {
                 + ", state1=" + state1
                 + ", state2=" + state2
                 + ", state3=" + state3
+                + ", nDecoded=" + nDecoded
                 + ", nLiteralPayloadBytes=" + nLiteralPayloadBytes
                 + ", nLiterals=" + nLiterals
                 + ", literalBits=" + literalBits
@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Opt-in decoder metrics.
+ * <p>
+ * Enabled with the system property {@value #PROPERTY}=true, fixed at class initialisation. When disabled all
+ * recording sites are guarded by a constant and compiled out, the decoding loops are unaffected. When enabled,
+ * decoders count into plain per block arrays which streams fold into their own totals, see
+ * {@link LZFSEInputStream#stats()}, and into the global striped counters here on each block boundary. Timings are
+ * taken per L/M/D triple and add measurable overhead.
+ *
+ * @author Ayesha
+ */
+@ThreadSafe
+@ParametersAreNonnullByDefault
+public final class LZFSEMetrics implements LZFSEMetricsMXBean {
+
+    public static final String PROPERTY = "ragingmoose.metrics";
+
+    public static final String OBJECT_NAME = "com.github.horrorho.ragingmoose:type=LZFSEMetrics";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    static final int RAW_BLOCKS = 0;
+    static final int LZVN_BLOCKS = 1;
+    static final int V1_BLOCKS = 2;
+    static final int V2_BLOCKS = 3;
+    static final int COMPRESSED_BYTES = 4;
+    static final int DECODED_BYTES = 5;
+    static final int LITERALS = 6;
+    static final int MATCHES = 7;
+    static final int MATCH_BYTES = 8;
+    static final int MATCH_DISTANCE = 9;
+    static final int HEADER_NANOS = 10;
+    static final int TABLE_NANOS = 11;
+    static final int ENTROPY_NANOS = 12;
+    static final int MATCH_NANOS = 13;
+    static final int COUNTERS = 14;
+
+    private static final LZFSEMetrics GLOBAL = new LZFSEMetrics();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+            } catch (JMException | SecurityException ex) {
+                // Best effort, the counters remain available via global().
+            }
+        }
+    }
+
+    /**
+     * Returns true if metrics are enabled.
+     *
+     * @return true if enabled
+     */
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the global metrics, aggregated over all streams.
+     *
+     * @return global metrics
+     */
+    @Nonnull
+    public static LZFSEMetrics global() {
+        return GLOBAL;
+    }
+
+    private final LongAdder[] adders = new LongAdder[COUNTERS];
+
+    private LZFSEMetrics() {
+        for (int i = 0; i < COUNTERS; i++) {
+            adders[i] = new LongAdder();
+        }
+    }
+
+    void add(long[] counts) {
+        for (int i = 0; i < COUNTERS; i++) {
+            if (counts[i] != 0) {
+                adders[i].add(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the global metrics. Counters are summed individually, concurrent updates may be partially
+     * reflected.
+     *
+     * @return snapshot
+     */
+    @Nonnull
+    public LZFSEStats stats() {
+        long[] counts = new long[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++) {
+            counts[i] = adders[i].sum();
+        }
+        return new LZFSEStats(counts);
+    }
+
+    @Override
+    public long getRawBlocks() {
+        return adders[RAW_BLOCKS].sum();
+    }
+
+    @Override
+    public long getLZVNBlocks() {
+        return adders[LZVN_BLOCKS].sum();
+    }
+
+    @Override
+    public long getV1Blocks() {
+        return adders[V1_BLOCKS].sum();
+    }
+
+    @Override
+    public long getV2Blocks() {
+        return adders[V2_BLOCKS].sum();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return adders[COMPRESSED_BYTES].sum();
+    }
+
+    @Override
+    public long getDecodedBytes() {
+        return adders[DECODED_BYTES].sum();
+    }
+
+    @Override
+    public long getLiterals() {
+        return adders[LITERALS].sum();
+    }
+
+    @Override
+    public long getMatches() {
+        return adders[MATCHES].sum();
+    }
+
+    @Override
+    public double getAverageMatchLength() {
+        return stats().averageMatchLength();
+    }
+
+    @Override
+    public double getAverageMatchDistance() {
+        return stats().averageMatchDistance();
+    }
+
+    @Override
+    public long getHeaderNanos() {
+        return adders[HEADER_NANOS].sum();
+    }
+
+    @Override
+    public long getTableNanos() {
+        return adders[TABLE_NANOS].sum();
+    }
+
+    @Override
+    public long getEntropyNanos() {
+        return adders[ENTROPY_NANOS].sum();
+    }
+
+    @Override
+    public long getMatchNanos() {
+        return adders[MATCH_NANOS].sum();
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : adders) {
+            adder.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSEMetrics{" + "enabled=" + ENABLED + ", stats=" + stats() + '}';
+    }
+}
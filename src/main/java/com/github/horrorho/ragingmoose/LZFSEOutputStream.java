@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.Matcher.MIN_MATCH;
+import static com.github.horrorho.ragingmoose.Matcher.extend;
+import static com.github.horrorho.ragingmoose.Matcher.hash;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * LZFSE encoder.
+ * <p>
+ * Input is buffered in 64 KB segments, each matched greedily against itself and the preceding 64 KB by way of a
+ * {@link #ENCODE_HASH_WIDTH} way hash table. Segments are emitted as one or more blocks. Blocks of under
+ * {@link #ENCODE_LZVN_THRESHOLD} bytes are encoded as LZVN, larger blocks as LZFSE v2. Blocks that fail to compress are
+ * stored uncompressed.
+ * <p>
+ * {@link #flush()} ends the current segment, frequent flushing degrades compression. {@link #finish()} or
+ * {@link #close()} writes the end of stream block.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public class LZFSEOutputStream extends OutputStream implements LZFSEConstants {
+
+    private static final int HISTORY_SIZE = 65536;
+    private static final int SEGMENT_SIZE = 65536;
+
+    // Raw block magic and raw bytes.
+    private static final int RAW_HEADER_BYTES = 8;
+
+    private final OutputStream os;
+
+    private final byte[] buffer = new byte[HISTORY_SIZE + SEGMENT_SIZE];
+    private final int[] table = new int[ENCODE_HASH_VALUES * ENCODE_HASH_WIDTH];
+
+    // Buffered input pending encoding.
+    private int start;
+    private int end;
+
+    // Pending block, triples over buffer[blockStart, blockEnd).
+    private final int[] ls = new int[MATCHES_PER_BLOCK];
+    private final int[] ms = new int[MATCHES_PER_BLOCK];
+    private final int[] ds = new int[MATCHES_PER_BLOCK];
+    private int nTriples;
+    private int nLiterals;
+    private int blockStart;
+    private int blockEnd;
+
+    private final byte[] out = new byte[LZFSEBlockEncoder.MAX_BLOCK_BYTES];
+    private final LZFSEBlockEncoder lzfseBlockEncoder = new LZFSEBlockEncoder();
+    private final LZVNBlockEncoder lzvnBlockEncoder = new LZVNBlockEncoder();
+
+    private final byte[] one = new byte[1];
+    private boolean finished;
+
+    public LZFSEOutputStream(OutputStream os) {
+        this.os = Objects.requireNonNull(os);
+        Arrays.fill(table, -1);
+    }
+
+    public LZFSEOutputStream(WritableByteChannel ch) {
+        this(Channels.newOutputStream(ch));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        one[0] = (byte) b;
+        write(one, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (finished) {
+            throw new IOException("stream finished");
+        }
+        while (len > 0) {
+            if (end == buffer.length) {
+                slide();
+            }
+            int n = Math.min(len, Math.min(buffer.length, start + SEGMENT_SIZE) - end);
+            System.arraycopy(b, off, buffer, end, n);
+            end += n;
+            off += n;
+            len -= n;
+            if (end - start == SEGMENT_SIZE || end == buffer.length) {
+                encode();
+            }
+        }
+    }
+
+    /**
+     * Encodes and writes all buffered input, then flushes the underlying stream.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!finished) {
+            encode();
+        }
+        os.flush();
+    }
+
+    /**
+     * Encodes and writes all buffered input and the end of stream block. The underlying stream is not closed.
+     *
+     * @throws IOException
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            encode();
+            ByteArrays.putIntLE(out, 0, ENDOFSTREAM_BLOCK_MAGIC);
+            os.write(out, 0, 4);
+            finished = true;
+        }
+    }
+
+    /**
+     * Finishes and flushes this stream. The underlying stream is not closed.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        finish();
+        os.flush();
+    }
+
+    void slide() {
+        // Retain the history, table entries that fall out of it are invalidated.
+        int shift = end - HISTORY_SIZE;
+        System.arraycopy(buffer, shift, buffer, 0, HISTORY_SIZE);
+        for (int i = 0; i < table.length; i++) {
+            int v = table[i] - shift;
+            table[i] = v < 0 ? -1 : v;
+        }
+        start -= shift;
+        end -= shift;
+        blockStart -= shift;
+        blockEnd -= shift;
+    }
+
+    void insert(int h, int p) {
+        // Most recent first.
+        for (int i = h + ENCODE_HASH_WIDTH - 1; i > h; i--) {
+            table[i] = table[i - 1];
+        }
+        table[h] = p;
+    }
+
+    void encode() throws IOException {
+        int e = end;
+        int limit = e - MIN_MATCH;
+        int lit = start;
+        int p = start;
+        while (p <= limit) {
+            int x = ByteArrays.getIntLE(buffer, p);
+            int h = hash(x) * ENCODE_HASH_WIDTH;
+            int len = 0;
+            int c = 0;
+            for (int i = h, n = h + ENCODE_HASH_WIDTH; i < n; i++) {
+                int candidate = table[i];
+                if (candidate < 0) {
+                    break;
+                }
+                if (ByteArrays.getIntLE(buffer, candidate) == x) {
+                    int k = MIN_MATCH + extend(buffer, candidate + MIN_MATCH, p + MIN_MATCH, e);
+                    if (k > len) {
+                        len = k;
+                        c = candidate;
+                        if (len >= ENCODE_GOOD_MATCH) {
+                            break;
+                        }
+                    }
+                }
+            }
+            insert(h, p);
+            if (len == 0) {
+                // Skip ahead faster the longer the literal run, incompressible input is passed over quickly.
+                p += 1 + (p - lit >>> 6);
+                continue;
+            }
+            int q = p;
+            while (p > lit && c > 0 && buffer[p - 1] == buffer[c - 1]) {
+                p--;
+                c--;
+                len++;
+            }
+            lmd(p - lit, len, p - c);
+            p += len;
+            lit = p;
+            for (int i = q + 1, n = Math.min(p, limit + 1); i < n; i++) {
+                insert(hash(ByteArrays.getIntLE(buffer, i)) * ENCODE_HASH_WIDTH, i);
+            }
+        }
+        lmd(e - lit, 0, 0);
+        flushBlock();
+        start = e;
+    }
+
+    void lmd(int l, int m, int d) throws IOException {
+        // Split to the encoder limits, match remainders of at least MIN_MATCH.
+        for (; l > ENCODE_MAX_L_VALUE; l -= ENCODE_MAX_L_VALUE) {
+            triple(ENCODE_MAX_L_VALUE, 0, 0);
+        }
+        for (; m > ENCODE_MAX_M_VALUE; l = 0) {
+            int k = m - ENCODE_MAX_M_VALUE < MIN_MATCH ? m - MIN_MATCH : ENCODE_MAX_M_VALUE;
+            triple(l, k, d);
+            m -= k;
+        }
+        if (l > 0 || m > 0) {
+            triple(l, m, d);
+        }
+    }
+
+    void triple(int l, int m, int d) throws IOException {
+        // Literals held 3 short of the block limit, LZFSE pads them to a multiple of 4.
+        if (nTriples == MATCHES_PER_BLOCK || nLiterals + l > LITERALS_PER_BLOCK - 3) {
+            flushBlock();
+        }
+        ls[nTriples] = l;
+        ms[nTriples] = m;
+        ds[nTriples] = d;
+        nTriples++;
+        nLiterals += l;
+        blockEnd += l + m;
+    }
+
+    void flushBlock() throws IOException {
+        int nRawBytes = blockEnd - blockStart;
+        if (nRawBytes > 0) {
+            int n = -1;
+            if (nRawBytes < ENCODE_LZVN_THRESHOLD) {
+                n = lzvnBlockEncoder.encode(buffer, blockStart, ls, ms, ds, nTriples, nRawBytes, out, 0);
+            }
+            if (n < 0) {
+                n = lzfseBlockEncoder.encode(buffer, blockStart, ls, ms, ds, nTriples, nRawBytes, out, 0);
+            }
+            if (n >= 0 && n < RAW_HEADER_BYTES + nRawBytes) {
+                os.write(out, 0, n);
+            } else {
+                ByteArrays.putIntLE(out, 0, UNCOMPRESSED_BLOCK_MAGIC);
+                ByteArrays.putIntLE(out, 4, nRawBytes);
+                os.write(out, 0, RAW_HEADER_BYTES);
+                os.write(buffer, blockStart, nRawBytes);
+            }
+        }
+        blockStart = blockEnd;
+        nTriples = 0;
+        nLiterals = 0;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static java.lang.Integer.toHexString;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Outcome of a non-throwing decode.
+ *
+ * @author Ayesha
+ * @see LZFSEDecompressor#tryDecompress(java.nio.ByteBuffer, java.nio.ByteBuffer)
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LZFSEResult {
+
+    public enum Status {
+        /**
+         * Decoded through to the end of stream block.
+         */
+        OK,
+        /**
+         * The source was exhausted before the end of stream block.
+         */
+        TRUNCATED,
+        /**
+         * The source is not a valid LZFSE stream.
+         */
+        CORRUPT,
+        /**
+         * The destination was filled before the end of stream block.
+         */
+        OVERFLOW
+    }
+
+    private final Status status;
+    private final long decoded;
+    private final long offset;
+    private final int magic;
+
+    LZFSEResult(Status status, long decoded, long offset, int magic) {
+        this.status = Objects.requireNonNull(status);
+        this.decoded = decoded;
+        this.offset = offset;
+        this.magic = magic;
+    }
+
+    @Nonnull
+    public Status status() {
+        return status;
+    }
+
+    public boolean isOK() {
+        return status == Status.OK;
+    }
+
+    /**
+     * Returns the number of bytes decoded, up to the point of failure if any.
+     *
+     * @return number of bytes decoded
+     */
+    public long decoded() {
+        return decoded;
+    }
+
+    /**
+     * Returns the offset of the block at which decoding stopped, relative to the source start. On success this is the
+     * end of stream block.
+     *
+     * @return block offset
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the magic of the block at which decoding stopped, or 0 if the source ended before it.
+     *
+     * @return block magic, little endian
+     */
+    public int magic() {
+        return magic;
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSEResult{"
+                + "status=" + status
+                + ", decoded=" + decoded
+                + ", offset=" + offset
+                + ", magic=0x" + toHexString(magic)
+                + '}';
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.COMPRESSED_BYTES;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.COUNTERS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.DECODED_BYTES;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.ENTROPY_NANOS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.HEADER_NANOS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.LITERALS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.LZVN_BLOCKS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.MATCHES;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.MATCH_BYTES;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.MATCH_DISTANCE;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.MATCH_NANOS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.RAW_BLOCKS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.TABLE_NANOS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.V1_BLOCKS;
+import static com.github.horrorho.ragingmoose.LZFSEMetrics.V2_BLOCKS;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Snapshot of decoder metrics, all zero unless metrics are enabled.
+ * <p>
+ * Block counts exclude the end of stream block, compressed bytes include block headers and the end of stream block.
+ * Header time covers block magic and header parsing, table time decoder initialisation including entropy table builds
+ * and payload reads, entropy time L/M/D and literal decoding and match time bulk match execution.
+ *
+ * @author Ayesha
+ * @see LZFSEMetrics
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LZFSEStats {
+
+    static final LZFSEStats EMPTY = new LZFSEStats(new long[COUNTERS]);
+
+    private final long[] counts;
+
+    LZFSEStats(long[] counts) {
+        this.counts = counts.clone();
+    }
+
+    public long rawBlocks() {
+        return counts[RAW_BLOCKS];
+    }
+
+    public long lzvnBlocks() {
+        return counts[LZVN_BLOCKS];
+    }
+
+    public long v1Blocks() {
+        return counts[V1_BLOCKS];
+    }
+
+    public long v2Blocks() {
+        return counts[V2_BLOCKS];
+    }
+
+    public long blocks() {
+        return counts[RAW_BLOCKS] + counts[LZVN_BLOCKS] + counts[V1_BLOCKS] + counts[V2_BLOCKS];
+    }
+
+    public long compressedBytes() {
+        return counts[COMPRESSED_BYTES];
+    }
+
+    public long decodedBytes() {
+        return counts[DECODED_BYTES];
+    }
+
+    public long literals() {
+        return counts[LITERALS];
+    }
+
+    public long matches() {
+        return counts[MATCHES];
+    }
+
+    /**
+     * Returns the total match length.
+     *
+     * @return bytes decoded by matches
+     */
+    public long matchBytes() {
+        return counts[MATCH_BYTES];
+    }
+
+    public double averageMatchLength() {
+        return counts[MATCHES] == 0 ? 0 : (double) counts[MATCH_BYTES] / counts[MATCHES];
+    }
+
+    public double averageMatchDistance() {
+        return counts[MATCHES] == 0 ? 0 : (double) counts[MATCH_DISTANCE] / counts[MATCHES];
+    }
+
+    public long headerNanos() {
+        return counts[HEADER_NANOS];
+    }
+
+    public long tableNanos() {
+        return counts[TABLE_NANOS];
+    }
+
+    public long entropyNanos() {
+        return counts[ENTROPY_NANOS];
+    }
+
+    public long matchNanos() {
+        return counts[MATCH_NANOS];
+    }
+
+    @Override
+    public String toString() {
+        return "LZFSEStats{"
+                + "rawBlocks=" + rawBlocks()
+                + ", lzvnBlocks=" + lzvnBlocks()
+                + ", v1Blocks=" + v1Blocks()
+                + ", v2Blocks=" + v2Blocks()
+                + ", compressedBytes=" + compressedBytes()
+                + ", decodedBytes=" + decodedBytes()
+                + ", literals=" + literals()
+                + ", matches=" + matches()
+                + ", averageMatchLength=" + averageMatchLength()
+                + ", averageMatchDistance=" + averageMatchDistance()
+                + ", headerNanos=" + headerNanos()
+                + ", tableNanos=" + tableNanos()
+                + ", entropyNanos=" + entropyNanos()
+                + ", matchNanos=" + matchNanos()
+                + '}';
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Preallocated, stackless decoder failure signal. Decoders throw {@link #CORRUPT} on malformed block data, so that
+ * scanning damaged data costs no exception construction. Never escapes the package, {@link LZFSEInputStream} maps it
+ * to a conventional {@link LZFSEDecoderException} for its callers unless signalling is enabled.
+ *
+ * @author Ayesha
+ */
+@Immutable
+final class LZFSEStatusException extends LZFSEDecoderException {
+
+    private static final long serialVersionUID = 1L;
+
+    static final LZFSEStatusException TRUNCATED = new LZFSEStatusException(LZFSEResult.Status.TRUNCATED);
+
+    static final LZFSEStatusException CORRUPT = new LZFSEStatusException(LZFSEResult.Status.CORRUPT);
+
+    private final LZFSEResult.Status status;
+
+    private LZFSEStatusException(LZFSEResult.Status status) {
+        super(status.name());
+        this.status = status;
+    }
+
+    LZFSEResult.Status status() {
+        return status;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+/**
+ * Decode trace hook, attached with {@link LZFSEInputStream#tracer(LZFSETracer)}.
+ * <p>
+ * Called on the decoding thread as each block header and each L/M/D triple is decoded. Implementations should be
+ * cheap, they run inline with decoding. Streams without a tracer pay a single null check per triple.
+ *
+ * @author Ayesha
+ */
+public interface LZFSETracer {
+
+    /**
+     * Called on each block, excluding the end of stream block, before its triples.
+     *
+     * @param magic block magic, little endian, as {@link LZFSEResult#magic()}
+     * @param nRawBytes decoded size
+     * @param nPayloadBytes compressed payload size, excluding the header
+     */
+    void block(int magic, int nRawBytes, int nPayloadBytes);
+
+    /**
+     * Called on each L/M/D triple of compressed blocks.
+     *
+     * @param l literal run length
+     * @param m match length, may be 0
+     * @param d match distance, 0 if there is no match
+     */
+    void lmd(int l, int m, int d);
+}
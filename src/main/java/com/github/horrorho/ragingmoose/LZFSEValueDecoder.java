@@ -54,14 +54,16 @@ class LZFSEValueDecoder {
     private final TANS.State state;
 
     LZFSEValueDecoder(int nStates) throws LZFSEDecoderException {
-        this.tans = new TANS<>(nStates, Entry::new, Entry[]::new);
+        this.tans = new TANS<>(TANS.entries(nStates, Entry[]::new, Entry::new));
         this.state = new TANS.State();
     }
 
     @Nonnull
     LZFSEValueDecoder load(short[] weights, byte[] symbolVBits, int[] symbolVBase) throws LZFSEDecoderException {
-        tans.init(weights)
-                .foreach((u, v) -> v.set(symbolVBits, symbolVBase));
+        tans.init(weights);
+        for (int i = 0, n = tans.size(); i < n; i++) {
+            tans.entry(i).set(symbolVBits, symbolVBase);
+        }
         return this;
     }
 
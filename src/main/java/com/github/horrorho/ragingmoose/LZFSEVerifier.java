@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillNotClose;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Validation only LZFSE decoding.
+ * <p>
+ * Block headers are parsed and the entropy coded L/M/D values and literals decoded, but no literal or match bytes are
+ * copied. Every match distance is checked against the cumulative decoded length and the match window, every literal
+ * run against the block's literal count and every block's decoded length against its header. Uncompressed block
+ * payloads are skipped, seeking where the channel permits. Suited to integrity scrubbing where the output itself is
+ * not wanted.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public final class LZFSEVerifier {
+
+    /**
+     * Verifies an LZFSE stream, consuming it up to and including the end of stream block.
+     *
+     * @param is
+     * @return decoded length
+     * @throws IOException
+     * @throws LZFSEDecoderException if the stream is malformed
+     */
+    public static long verify(@WillNotClose InputStream is) throws IOException, LZFSEDecoderException {
+        return verify(Channels.newChannel(is));
+    }
+
+    /**
+     * Verifies an LZFSE stream, consuming it up to and including the end of stream block.
+     *
+     * @param ch
+     * @return decoded length
+     * @throws IOException
+     * @throws LZFSEDecoderException if the stream is malformed
+     */
+    public static long verify(@WillNotClose ReadableByteChannel ch) throws IOException, LZFSEDecoderException {
+        LZFSEInputStream is = new LZFSEInputStream(ch);
+        long n = 0;
+        try {
+            while (is.nextBlock()) {
+                n += is.decoder().verify(n);
+            }
+            return n;
+
+        } catch (LZFSEStatusException ex) {
+            throw new LZFSEDecoderException("bad block data at: " + n);
+
+        } catch (RuntimeException ex) {
+            throw new LZFSEDecoderException("internal error", ex);
+        }
+    }
+
+    private LZFSEVerifier() {
+    }
+}
@@ -24,9 +24,7 @@
 package com.github.horrorho.ragingmoose;
 
 import java.io.IOException;
-import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import static java.nio.ByteOrder.LITTLE_ENDIAN;
 import java.nio.channels.ReadableByteChannel;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -41,47 +39,66 @@ import javax.annotation.concurrent.NotThreadSafe;
 @ParametersAreNonnullByDefault
 final class LZVNBlockDecoder extends LMDBlockDecoder {
 
-    private interface Op {
-
-        boolean call(int opc) throws LZFSEDecoderException;
-    }
-
-    private final Op[] tbl = new Op[]{
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::eos,  this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::nop,  this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::nop,  this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::udef, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::udef, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::udef, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::udef, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::udef, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef,
-        this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD,
-        this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD,
-        this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD,
-        this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD, this::medD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::smlD, this::preD, this::lrgD,
-        this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef,
-        this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef, this::udef,
-        this::lrgL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL,
-        this::smlL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL, this::smlL,
-        this::lrgM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM,
-        this::smlM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM, this::smlM};
+    // Opcode classes, static so that instances carry no dispatch table.
+    private static final byte SML_D = 0;
+    private static final byte MED_D = 1;
+    private static final byte LRG_D = 2;
+    private static final byte PRE_D = 3;
+    private static final byte SML_L = 4;
+    private static final byte LRG_L = 5;
+    private static final byte SML_M = 6;
+    private static final byte LRG_M = 7;
+    private static final byte EOS = 8;
+    private static final byte NOP = 9;
+    private static final byte UDEF = 10;
+
+    private static final byte[] OPS = new byte[]{
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  EOS,    LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  NOP,    LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  NOP,    LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  UDEF,   LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  UDEF,   LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  UDEF,   LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  UDEF,   LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  UDEF,   LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,
+        UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,
+        MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,
+        MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,
+        MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,  MED_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  SML_D,  PRE_D,  LRG_D,
+        UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,
+        UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,   UDEF,
+        LRG_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,
+        SML_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,  SML_L,
+        LRG_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M,
+        SML_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M,  SML_M};
+
+    private static final int BUFFER_SIZE = 4096;
+    // Opcodes with operands span at most 3 bytes, operands may be read past the limit into the slack.
+    private static final int SLACK = 3;
+
+    private final byte[] buf = new byte[BUFFER_SIZE + SLACK];
+    private final ByteBuffer bb = ByteBuffer.wrap(buf, 0, BUFFER_SIZE);
+    private int pos;
+    private int lim;
 
     @Nullable
-    private ByteBuffer bb;
+    private ReadableByteChannel ch;
+    private int nPayloadBytes;
+    private int nRawBytes;
     private boolean neos = true;
 
     LZVNBlockDecoder(MatchBuffer mb) {
@@ -89,46 +106,191 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
     }
 
     LZVNBlockDecoder init(LZVNBlockHeader header, @WillNotClose ReadableByteChannel ch) throws IOException {
-        initBuffer(header.nPayloadBytes());
-        IO.readFully(ch, bb).rewind();
+        this.ch = ch;
+        this.nPayloadBytes = header.nPayloadBytes();
+        this.nRawBytes = header.nRawBytes();
+        this.budget = nRawBytes;
+        pos = 0;
+        lim = 0;
 
         l = 0;
         m = 0;
         d = -1;
+        neos = true;
 
         return this;
     }
 
-    void initBuffer(int capacity) {
-        if (bb == null || bb.capacity() < capacity) {
-            bb = ByteBuffer.allocate(capacity).order(LITTLE_ENDIAN);
-        } else {
-            bb.limit(capacity);
+    void refill() throws IOException {
+        // Payload is consumed incrementally, unread bytes are retained.
+        if (nPayloadBytes > 0) {
+            int r = lim - pos;
+            System.arraycopy(buf, pos, buf, 0, r);
+            int n = Math.min(BUFFER_SIZE - r, nPayloadBytes);
+            bb.limit(r + n).position(r);
+            IO.readFully(ch, bb);
+            nPayloadBytes -= n;
+            pos = 0;
+            lim = r + n;
+        }
+    }
+
+    void drain() throws IOException {
+        // Discard any trailing payload so the channel is aligned on the next block.
+        while (nPayloadBytes > 0) {
+            int n = Math.min(BUFFER_SIZE, nPayloadBytes);
+            bb.limit(n).position(0);
+            IO.readFully(ch, bb);
+            nPayloadBytes -= n;
         }
-        bb.position(0);
+        pos = 0;
+        lim = 0;
     }
 
     @Override
     boolean lmd() throws IOException, LZFSEDecoderException {
         if (neos) {
-            try {
-                int opc = bb.get() & 0xFF;
-                neos = tbl[opc].call(opc);
-
-            } catch (BufferUnderflowException ex) {
-                throw new LZFSEDecoderException(ex);
+            if (lim - pos < SLACK) {
+                refill();
+            }
+            // Opcode and operands are read unchecked, a single check afterwards catches any overrun into the slack.
+            int opc = buf[pos++] & 0xFF;
+            neos = op(opc);
+            if (pos > lim) {
+                throw LZFSEStatusException.CORRUPT;
+            }
+            if (!neos) {
+                drain();
             }
         }
         return neos;
     }
 
+    @Override
+    public int read() throws IOException {
+        // Specialized copy of LMDBlockDecoder#read, as in LZFSEBlockDecoder. The inherited loops' call sites are shared by every
+        // LMD decoder, here literal, literals and lmd bind statically to this final class.
+        do {
+            // Literal
+            if (l > 0) {
+                l--;
+                byte b = literal();
+                mb.write(b);
+                return b & 0xFF;
+            }
+            // Match
+            if (m > 0) {
+                m--;
+                return mb.match(d) & 0xFF;
+            }
+        } while (next());
+
+        return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // Specialized, see read().
+        int to = off + len;
+        int o = off;
+        do {
+            int ls = Math.min(to - o, l);
+            if (ls > 0) {
+                literals(b, o, ls);
+                mb.write(b, o, ls);
+                o += ls;
+                l -= ls;
+            }
+            int ms = Math.min(to - o, m);
+            if (ms > 0) {
+                match(b, o, ms);
+                o += ms;
+                m -= ms;
+            }
+        } while (to - o > 0 && next());
+
+        return o - off;
+    }
+
+    @Override
+    boolean next() throws IOException {
+        // Specialized, see read().
+        return (LZFSEMetrics.ENABLED && counts != null ? lmd(counts) : lmd()) && triple();
+    }
+
+    @Override
+    int rawBytes() {
+        return nRawBytes;
+    }
+
+    @Override
+    void skipLiterals(int n) throws IOException {
+        while (n > 0) {
+            available();
+            int k = Math.min(n, lim - pos);
+            pos += k;
+            n -= k;
+        }
+    }
+
+    @Override
+    void literals(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            available();
+            int k = Math.min(len, lim - pos);
+            System.arraycopy(buf, pos, b, off, k);
+            pos += k;
+            off += k;
+            len -= k;
+        }
+    }
+
     @Override
     byte literal() throws IOException {
-        try {
-            return bb.get();
+        available();
+        return buf[pos++];
+    }
+
+    void available() throws IOException {
+        // At least one payload byte buffered.
+        if (pos == lim) {
+            refill();
+            if (pos == lim) {
+                throw LZFSEStatusException.CORRUPT;
+            }
+        }
+    }
+
+    int u16() {
+        int s = ByteArrays.getShortLE(buf, pos);
+        pos += 2;
+        return s;
+    }
 
-        } catch (BufferUnderflowException ex) {
-            throw new LZFSEDecoderException(ex);
+    boolean op(int opc) throws LZFSEDecoderException {
+        switch (OPS[opc]) {
+            case SML_D:
+                return smlD(opc);
+            case MED_D:
+                return medD(opc);
+            case LRG_D:
+                return lrgD(opc);
+            case PRE_D:
+                return preD(opc);
+            case SML_L:
+                return smlL(opc);
+            case LRG_L:
+                return lrgL(opc);
+            case SML_M:
+                return smlM(opc);
+            case LRG_M:
+                return lrgM(opc);
+            case EOS:
+                return eos(opc);
+            case NOP:
+                return nop(opc);
+            default:
+                return udef(opc);
         }
     }
 
@@ -140,7 +302,7 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
 
     boolean lrgL(int opc) {
         // 11100000 LLLLLLLL LITERAL
-        l((bb.get() & 0xFF) + 16);
+        l((buf[pos++] & 0xFF) + 16);
         return true;
     }
 
@@ -152,7 +314,7 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
 
     boolean lrgM(int opc) {
         // 11110000 MMMMMMMM
-        m((bb.get() & 0xFF) + 16);
+        m((buf[pos++] & 0xFF) + 16);
         return true;
     }
 
@@ -167,13 +329,13 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
         // LLMMMDDD DDDDDDDD LITERAL
         l(opc >>> 6 & 0x03);
         m((opc >>> 3 & 0x07) + 3);
-        d((opc & 0x07) << 8 | (bb.get() & 0xFF));
+        d((opc & 0x07) << 8 | (buf[pos++] & 0xFF));
         return true;
     }
 
     boolean medD(int opc) {
         // 101LLMMM DDDDDDMM DDDDDDDD LITERAL
-        int s = bb.getShort();
+        int s = u16();
         l(opc >>> 3 & 0x03);
         m(((opc & 0x7) << 2 | (s & 0x03)) + 3);
         d(s >>> 2);
@@ -184,7 +346,7 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
         // LLMMM111 DDDDDDDD DDDDDDDD LITERAL 
         l(opc >>> 6 & 0x03);
         m((opc >>> 3 & 0x07) + 3);
-        d(bb.getShort() & 0xFFFF);
+        d(u16());
         return true;
     }
 
@@ -197,6 +359,6 @@ final class LZVNBlockDecoder extends LMDBlockDecoder {
     }
 
     boolean udef(int opc) throws LZFSEDecoderException {
-        throw new LZFSEDecoderException();
+        throw LZFSEStatusException.CORRUPT;
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * LZVN block encoder, the counterpart of {@link LZVNBlockDecoder}.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class LZVNBlockEncoder implements LZFSEConstants {
+
+    // Magic, raw bytes and payload bytes.
+    static final int HEADER_BYTES = 12;
+
+    // End of stream opcode and its padding.
+    static final int EOS_BYTES = 8;
+
+    // Largest distance, lrgD.
+    static final int MAX_D = 0xFFFF;
+
+    /**
+     * Emits an L/M/D triple. Literal runs of more than 3, or those without a match, are emitted as smlL/lrgL. The
+     * match and up to 3 literals as smlD, medD or lrgD, or preD if the distance repeats. Match remainders as
+     * smlM/lrgM.
+     *
+     * @param src literal source
+     * @param lp literal position
+     * @param l literal count
+     * @param m match length, 0 or at least 3
+     * @param d match distance
+     * @param dPrev previous match distance, -1 if none
+     * @param dst
+     * @param q destination position
+     * @return destination position following the triple, or -1 if the distance exceeds {@link #MAX_D}
+     */
+    static int emit(byte[] src, int lp, int l, int m, int d, int dPrev, byte[] dst, int q) {
+        if (m > 0 && d > MAX_D) {
+            return -1;
+        }
+        // Literals carried by the match opcode.
+        int lm = m == 0 ? 0 : l & 0x03;
+        for (int n = l - lm; n > 0;) {
+            int k = Math.min(n, 271);
+            if (k < 16) {
+                dst[q++] = (byte) (0xE0 | k);
+            } else {
+                dst[q++] = (byte) 0xE0;
+                dst[q++] = (byte) (k - 16);
+            }
+            System.arraycopy(src, lp, dst, q, k);
+            lp += k;
+            q += k;
+            n -= k;
+        }
+        if (m == 0) {
+            return q;
+        }
+        if (d != dPrev || lm > 0) {
+            int k;
+            if (d == dPrev) {
+                // preD, LLMMM110
+                k = Math.min(m, 10 - 2 * lm);
+                dst[q++] = (byte) (lm << 6 | k - 3 << 3 | 0x06);
+            } else if (d < 1536 && m <= 10 - 2 * lm) {
+                // smlD, LLMMMDDD DDDDDDDD
+                k = m;
+                dst[q++] = (byte) (lm << 6 | k - 3 << 3 | d >>> 8);
+                dst[q++] = (byte) d;
+            } else if (d < 16384) {
+                // medD, 101LLMMM DDDDDDMM DDDDDDDD
+                k = Math.min(m, 34);
+                int s = d << 2 | k - 3 & 0x03;
+                dst[q++] = (byte) (0xA0 | lm << 3 | k - 3 >>> 2);
+                dst[q++] = (byte) s;
+                dst[q++] = (byte) (s >>> 8);
+            } else {
+                // lrgD, LLMMM111 DDDDDDDD DDDDDDDD
+                k = Math.min(m, 10 - 2 * lm);
+                dst[q++] = (byte) (lm << 6 | k - 3 << 3 | 0x07);
+                dst[q++] = (byte) d;
+                dst[q++] = (byte) (d >>> 8);
+            }
+            System.arraycopy(src, lp, dst, q, lm);
+            q += lm;
+            m -= k;
+        }
+        while (m > 0) {
+            int k = Math.min(m, 271);
+            if (k < 16) {
+                dst[q++] = (byte) (0xF0 | k);
+            } else {
+                dst[q++] = (byte) 0xF0;
+                dst[q++] = (byte) (k - 16);
+            }
+            m -= k;
+        }
+        return q;
+    }
+
+    /**
+     * Emits the end of stream opcode.
+     *
+     * @param dst
+     * @param q
+     * @return destination position following the opcode
+     */
+    static int eos(byte[] dst, int q) {
+        dst[q++] = 0x06;
+        for (int i = 1; i < EOS_BYTES; i++) {
+            dst[q++] = 0;
+        }
+        return q;
+    }
+
+    static void header(byte[] dst, int off, int nRawBytes, int nPayloadBytes) {
+        ByteArrays.putIntLE(dst, off, COMPRESSEDLZVN_BLOCK_MAGIC);
+        ByteArrays.putIntLE(dst, off + 4, nRawBytes);
+        ByteArrays.putIntLE(dst, off + 8, nPayloadBytes);
+    }
+
+    /**
+     * Encodes a block of L/M/D triples, literals in place in the source.
+     *
+     * @param src
+     * @param off block start in src
+     * @param ls
+     * @param ms
+     * @param ds
+     * @param n number of triples
+     * @param nRawBytes
+     * @param dst
+     * @param dstOff
+     * @return encoded block size in bytes, or -1 if the block is not representable
+     */
+    int encode(byte[] src, int off, int[] ls, int[] ms, int[] ds, int n, int nRawBytes, byte[] dst, int dstOff) {
+        int q = dstOff + HEADER_BYTES;
+        int dPrev = -1;
+        for (int i = 0, p = off; i < n; i++) {
+            q = emit(src, p, ls[i], ms[i], ds[i], dPrev, dst, q);
+            if (q < 0) {
+                return -1;
+            }
+            if (ms[i] > 0) {
+                dPrev = ds[i];
+            }
+            p += ls[i] + ms[i];
+        }
+        q = eos(dst, q);
+        header(dst, dstOff, nRawBytes, q - dstOff - HEADER_BYTES);
+        return q - dstOff;
+    }
+}
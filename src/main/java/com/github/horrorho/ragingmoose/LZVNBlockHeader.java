@@ -50,8 +50,8 @@ class LZVNBlockHeader {
         bb.rewind();
         IO.readFully(ch, bb).flip();
 
-        nRawBytes = bb.getInt();
-        nPayloadBytes = bb.getInt();
+        nRawBytes(bb.getInt());
+        nPayloadBytes(bb.getInt());
 
         return this;
     }
@@ -60,10 +60,24 @@ class LZVNBlockHeader {
         return nRawBytes;
     }
 
+    private void nRawBytes(int v) throws LZFSEDecoderException {
+        if (v < 0) {
+            throw new LZFSEDecoderException();
+        }
+        this.nRawBytes = v;
+    }
+
     int nPayloadBytes() {
         return nPayloadBytes;
     }
 
+    private void nPayloadBytes(int v) throws LZFSEDecoderException {
+        if (v < 0) {
+            throw new LZFSEDecoderException();
+        }
+        this.nPayloadBytes = v;
+    }
+
     @Override
     public String toString() {
         return "LZVNBlockHeader{" + "nRawBytes=" + nRawBytes + ", nPayloadBytes=" + nPayloadBytes + '}';
@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.Matcher.MIN_MATCH;
+import static com.github.horrorho.ragingmoose.Matcher.extend;
+import static com.github.horrorho.ragingmoose.Matcher.hash;
+import java.util.Arrays;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * LZVN encoder for small in-memory buffers.
+ * <p>
+ * Each call encodes a buffer into a complete LZFSE stream of a single LZVN (bvxn) block, or an uncompressed (bvx-)
+ * block if LZVN is no smaller, and the end of stream block. The hash table is retained across calls, entries from
+ * previous calls are invalidated by offsetting rather than clearing, and encoding does not allocate. Matches reach
+ * back at most 65535 bytes, the LZVN limit, it is intended for inputs of a few KB, under
+ * {@link #ENCODE_LZVN_THRESHOLD}.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public final class LZVNEncoder implements LZFSEConstants {
+
+    // Raw block header and the end of stream block.
+    private static final int OVERHEAD = 12;
+
+    /**
+     * Returns the largest stream that encoding len bytes may produce.
+     *
+     * @param len
+     * @return maximum encoded size in bytes
+     */
+    public static int maxEncodedSize(int len) {
+        return len + OVERHEAD;
+    }
+
+    // Positions relative to base, entries below base are from previous calls.
+    private final int[] table = new int[ENCODE_HASH_VALUES];
+    private int base = 1;
+
+    /**
+     * Encodes src[off, off + len) into dst at dstOff.
+     *
+     * @param src
+     * @param off
+     * @param len
+     * @param dst at least {@link #maxEncodedSize(int)} bytes from dstOff
+     * @param dstOff
+     * @return encoded size in bytes
+     * @throws IndexOutOfBoundsException if the source range is invalid or the destination too small
+     */
+    public int encode(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        if (off < 0 || len < 0 || len > src.length - off
+                || dstOff < 0 || dstOff > dst.length - maxEncodedSize(len)) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            ByteArrays.putIntLE(dst, dstOff, ENDOFSTREAM_BLOCK_MAGIC);
+            return 4;
+        }
+        if (base > Integer.MAX_VALUE - len) {
+            Arrays.fill(table, 0);
+            base = 1;
+        }
+        int q = lzvn(src, off, len, dst, dstOff);
+        base += len;
+        if (q < 0) {
+            ByteArrays.putIntLE(dst, dstOff, UNCOMPRESSED_BLOCK_MAGIC);
+            ByteArrays.putIntLE(dst, dstOff + 4, len);
+            System.arraycopy(src, off, dst, dstOff + 8, len);
+            q = dstOff + 8 + len;
+        }
+        ByteArrays.putIntLE(dst, q, ENDOFSTREAM_BLOCK_MAGIC);
+        return q + 4 - dstOff;
+    }
+
+    int lzvn(byte[] src, int off, int len, byte[] dst, int dstOff) {
+        // Greedy parse, triples emitted as found. Gives up once the block would be no smaller than an uncompressed
+        // block, which bounds writes to the destination.
+        int end = off + len;
+        int limit = end - MIN_MATCH;
+        int qLimit = dstOff + len;
+        int q = dstOff + LZVNBlockEncoder.HEADER_BYTES;
+        int lit = off;
+        int p = off;
+        int dPrev = -1;
+        int b = base - off;
+        while (p <= limit) {
+            int x = ByteArrays.getIntLE(src, p);
+            int h = hash(x);
+            int c = table[h] - b;
+            table[h] = p + b;
+            if (c < off || p - c > LZVNBlockEncoder.MAX_D || ByteArrays.getIntLE(src, c) != x) {
+                // Skip ahead faster the longer the literal run.
+                p += 1 + (p - lit >>> 6);
+                continue;
+            }
+            int m = MIN_MATCH + extend(src, c + MIN_MATCH, p + MIN_MATCH, end);
+            while (p > lit && c > off && src[p - 1] == src[c - 1]) {
+                p--;
+                c--;
+                m++;
+            }
+            int l = p - lit;
+            if (q + bound(l, m) > qLimit) {
+                return -1;
+            }
+            q = LZVNBlockEncoder.emit(src, lit, l, m, p - c, dPrev, dst, q);
+            dPrev = p - c;
+            p += m;
+            lit = p;
+            if (p - 2 <= limit) {
+                table[hash(ByteArrays.getIntLE(src, p - 2))] = p - 2 + b;
+            }
+        }
+        int l = end - lit;
+        if (q + bound(l, 0) > qLimit) {
+            return -1;
+        }
+        q = LZVNBlockEncoder.emit(src, lit, l, 0, 0, dPrev, dst, q);
+        q = LZVNBlockEncoder.eos(dst, q);
+        LZVNBlockEncoder.header(dst, dstOff, len, q - dstOff - LZVNBlockEncoder.HEADER_BYTES);
+        return q;
+    }
+
+    static int bound(int l, int m) {
+        // Largest emission of a triple, literal and match opcodes of at most 271 each plus a 3 byte distance opcode.
+        return l + 2 * (l / 271 + 1) + 3 + 2 * (m / 271 + 1);
+    }
+}
@@ -23,6 +23,7 @@
  */
 package com.github.horrorho.ragingmoose;
 
+import java.util.Arrays;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -52,12 +53,74 @@ class MatchBuffer {
         p &= mod;
     }
 
+    void write(byte[] b, int off, int len) {
+        // Only the trailing window is retained.
+        if (len > buf.length) {
+            off += len - buf.length;
+            len = buf.length;
+        }
+        int n = Math.min(len, buf.length - p);
+        System.arraycopy(b, off, buf, p, n);
+        System.arraycopy(b, off + n, buf, 0, len - n);
+        p += len;
+        p &= mod;
+    }
+
     byte match(int d) {
         byte b = buf[(p - d) & mod];
         write(b);
         return b;
     }
 
+    void match(int d, byte[] b, int off, int len) {
+        // Executes len match bytes, at most d bytes at a time so that no run overlaps its own output. Short distances
+        // seed a single period from the window and expand it in the output, which is then written back.
+        if (d < 16 && d < len) {
+            copy(d, b, off, d);
+            ByteArrays.expand(b, off + d, d, len - d);
+            write(b, off, len);
+            return;
+        }
+        while (len > 0) {
+            int q = (p - d) & mod;
+            int n = Math.min(Math.min(len, d), buf.length - Math.max(p, q));
+            System.arraycopy(buf, q, buf, p, n);
+            System.arraycopy(buf, p, b, off, n);
+            p = (p + n) & mod;
+            off += n;
+            len -= n;
+        }
+    }
+
+    byte peek(int d) {
+        return buf[(p - d) & mod];
+    }
+
+    void copy(int d, byte[] b, int off, int len) {
+        // Copies len bytes starting d bytes behind the head, oldest first.
+        if (d > buf.length || len > d) {
+            throw new IllegalArgumentException("bad copy: " + d + " " + len);
+        }
+        int q = (p - d) & mod;
+        int n = Math.min(len, buf.length - q);
+        System.arraycopy(buf, q, b, off, n);
+        System.arraycopy(buf, 0, b, off + n, len - n);
+    }
+
+    void window(byte[] b, int off, int len) {
+        // Copies the trailing len bytes.
+        copy(len, b, off, len);
+    }
+
+    void clear() {
+        Arrays.fill(buf, (byte) 0);
+        p = 0;
+    }
+
+    int size() {
+        return buf.length;
+    }
+
     @Override
     public String toString() {
         return "MatchBuffer{" + "buf.length=" + buf.length + ", mod=" + mod + ", p=" + p + '}';
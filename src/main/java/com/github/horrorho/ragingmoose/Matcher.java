@@ -0,0 +1,63 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEConstants.ENCODE_HASH_BITS;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Match finding primitives shared by the LZFSE and LZVN encoders.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class Matcher {
+
+    // Hashed prefix length, the shortest match either encoder emits.
+    static final int MIN_MATCH = 4;
+
+    private Matcher() {
+    }
+
+    static int hash(int x) {
+        // Multiplicative hash of a 4 byte little endian prefix, to ENCODE_HASH_BITS.
+        return x * 0x9E3779B1 >>> 32 - ENCODE_HASH_BITS;
+    }
+
+    static int extend(byte[] b, int c, int p, int e) {
+        // Common length of b[c...] and b[p...], bounded by e.
+        int n = p;
+        for (; n <= e - 8; n += 8, c += 8) {
+            long x = ByteArrays.getLongLE(b, c) ^ ByteArrays.getLongLE(b, n);
+            if (x != 0) {
+                return n + (Long.numberOfTrailingZeros(x) >>> 3) - p;
+            }
+        }
+        for (; n < e && b[c] == b[n]; n++, c++) {
+        }
+        return n - p;
+    }
+}
@@ -24,57 +24,213 @@
 package com.github.horrorho.ragingmoose;
 
 import java.io.IOException;
-import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
-import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.WillNotClose;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
+ * Uncompressed block decoder.
+ * <p>
+ * Payload bytes are streamed through a fixed size buffer, peak memory is independent of the block size. Reads at
+ * least as large as the buffer bypass it and fill the caller's array directly from the channel. Only the trailing
+ * window of any single read or transfer is written to the match buffer.
  *
  * @author Ayesha
  */
 @NotThreadSafe
 @ParametersAreNonnullByDefault
-class RawBlockDecoder implements BlockDecoder {
+final class RawBlockDecoder implements BlockDecoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ByteBuffer bb = ByteBuffer.allocate(BUFFER_SIZE);
+    private final MatchBuffer mb;
 
     @Nullable
-    private ByteBuffer bb;
+    private ReadableByteChannel ch;
+    @Nullable
+    private ByteBuffer direct;
+    private int nRawBytes;
+
+    RawBlockDecoder(MatchBuffer mb) {
+        this.mb = Objects.requireNonNull(mb);
+    }
 
     RawBlockDecoder init(RawBlockHeader header, @WillNotClose ReadableByteChannel ch) throws IOException {
-        initBuffer(header.nRawBytes());
-        IO.readFully(ch, bb).rewind();
+        this.ch = ch;
+        this.nRawBytes = header.nRawBytes();
+        bb.limit(0);
         return this;
     }
 
     @Override
     public int read() throws IOException {
-        try {
-            return bb.hasRemaining()
-                    ? bb.get() & 0xFF
-                    : -1;
-
-        } catch (BufferUnderflowException ex) {
-            throw new LZFSEDecoderException(ex);
+        if (!bb.hasRemaining() && !fill()) {
+            return -1;
         }
+        byte b = bb.get();
+        mb.write(b);
+        return b & 0xFF;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
+        if (!bb.hasRemaining()) {
+            if (len >= bb.capacity() && nRawBytes > 0) {
+                return readDirect(b, off, len);
+            }
+            if (!fill()) {
+                return 0;
+            }
+        }
         int available = Math.min(bb.remaining(), len);
         bb.get(b, off, available);
+        mb.write(b, off, available);
         return available;
     }
 
-    void initBuffer(int capacity) {
-        if (bb == null || bb.capacity() < capacity) {
-            bb = ByteBuffer.allocate(capacity).order(LITTLE_ENDIAN);
-        } else {
-            bb.limit(capacity);
+    int readDirect(byte[] b, int off, int len) throws IOException {
+        int n = Math.min(nRawBytes, len);
+        // The wrapper is retained across reads into the same array.
+        if (direct == null || direct.array() != b) {
+            direct = ByteBuffer.wrap(b);
+        }
+        direct.limit(off + n)
+                .position(off);
+        IO.readFully(ch, direct);
+        nRawBytes -= n;
+        mb.write(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        if (bb.hasRemaining()) {
+            int k = (int) Math.min(bb.remaining(), n);
+            mb.write(bb.array(), bb.position(), k);
+            bb.position(bb.position() + k);
+            skipped += k;
+        }
+        if (skipped < n && nRawBytes > 0) {
+            int k = (int) Math.min(nRawBytes, n - skipped);
+            // Only the trailing window need pass through the match buffer.
+            int head = Math.max(0, k - mb.size());
+            discard(head);
+            for (int tail = k - head; tail > 0;) {
+                int chunk = Math.min(bb.capacity(), tail);
+                bb.position(0).limit(chunk);
+                IO.readFully(ch, bb);
+                mb.write(bb.array(), 0, chunk);
+                nRawBytes -= chunk;
+                tail -= chunk;
+            }
+            bb.limit(0);
+            skipped += k;
+        }
+        return skipped;
+    }
+
+    @Override
+    public long verify(long position) throws IOException {
+        int n = bb.remaining() + nRawBytes;
+        bb.limit(0);
+        discard(nRawBytes);
+        return n;
+    }
+
+    void discard(int n) throws IOException {
+        if (ch instanceof SeekableByteChannel) {
+            SeekableByteChannel sbc = (SeekableByteChannel) ch;
+            sbc.position(sbc.position() + n);
+            nRawBytes -= n;
+            return;
+        }
+        while (n > 0) {
+            int chunk = Math.min(bb.capacity(), n);
+            bb.position(0).limit(chunk);
+            IO.readFully(ch, bb);
+            nRawBytes -= chunk;
+            n -= chunk;
+        }
+        bb.limit(0);
+    }
+
+    /**
+     * Transfers the remainder of the block to the target channel.
+     * <p>
+     * Bytes that lie beyond the reach of subsequent matches bypass the match buffer and, with {@link FileChannel}
+     * sources, are transferred channel to channel.
+     *
+     * @param target
+     * @return number of bytes transferred
+     * @throws IOException
+     */
+    long transferTo(@WillNotClose WritableByteChannel target) throws IOException {
+        long n = 0;
+        if (bb.hasRemaining()) {
+            n += bb.remaining();
+            mb.write(bb.array(), bb.position(), bb.remaining());
+            IO.writeFully(target, bb);
+        }
+        int head = nRawBytes - mb.size();
+        if (head > 0) {
+            int transferred = transferHead(target, head);
+            n += transferred;
+            head -= transferred;
+            while (head > 0) {
+                int k = Math.min(bb.capacity(), head);
+                bb.position(0).limit(k);
+                IO.readFully(ch, bb).flip();
+                IO.writeFully(target, bb);
+                nRawBytes -= k;
+                head -= k;
+                n += k;
+            }
+        }
+        while (fill()) {
+            n += bb.remaining();
+            mb.write(bb.array(), 0, bb.remaining());
+            IO.writeFully(target, bb);
+        }
+        return n;
+    }
+
+    int transferHead(WritableByteChannel target, int head) throws IOException {
+        if (!(ch instanceof FileChannel)) {
+            return 0;
+        }
+        FileChannel fc = (FileChannel) ch;
+        long position = fc.position();
+        int n = 0;
+        while (n < head) {
+            long transferred = fc.transferTo(position + n, head - n, target);
+            if (transferred <= 0) {
+                // Truncated source or stalled target, the buffered path takes over.
+                break;
+            }
+            n += transferred;
+        }
+        fc.position(position + n);
+        nRawBytes -= n;
+        return n;
+    }
+
+    boolean fill() throws IOException {
+        if (nRawBytes == 0) {
+            return false;
         }
-        bb.position(0);
+        int n = Math.min(bb.capacity(), nRawBytes);
+        bb.position(0).limit(n);
+        IO.readFully(ch, bb).flip();
+        nRawBytes -= n;
+        return true;
     }
 }
@@ -49,7 +49,7 @@ class RawBlockHeader {
         bb.rewind();
         IO.readFully(ch, bb).flip();
 
-        nRawBytes = bb.getInt();
+        nRawBytes(bb.getInt());
 
         return this;
     }
@@ -58,6 +58,13 @@ class RawBlockHeader {
         return nRawBytes;
     }
 
+    private void nRawBytes(int v) throws LZFSEDecoderException {
+        if (v < 0) {
+            throw new LZFSEDecoderException();
+        }
+        this.nRawBytes = v;
+    }
+
     @Override
     public String toString() {
         return "RawBlockHeader{" + "nRawBytes=" + nRawBytes + '}';
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.WillCloseWhenClosed;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Read only, random access view over the decoded contents of an LZFSE stream.
+ * <p>
+ * Repositioning resumes decoding from the nearest preceding {@link LZFSEIndex} checkpoint, so a read costs at most
+ * one checkpoint interval of decoding in addition to the bytes returned. Forward repositioning within the current
+ * checkpoint interval continues from the current decoder position.
+ * <p>
+ * Closing this channel closes the underlying channel.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public class SeekableLZFSEChannel implements SeekableByteChannel {
+
+    private final SeekableByteChannel ch;
+    private final LZFSEIndex index;
+    private final LZFSEInputStream is;
+
+    @Nullable
+    private byte[] buffer;
+    private long position;
+    private long decoded = -1;
+    private boolean open = true;
+
+    public SeekableLZFSEChannel(@WillCloseWhenClosed SeekableByteChannel ch, LZFSEIndex index) {
+        this.ch = Objects.requireNonNull(ch);
+        this.index = Objects.requireNonNull(index);
+        this.is = new LZFSEInputStream(ch);
+    }
+
+    /**
+     * Builds an index with the default checkpoint interval.
+     *
+     * @param ch channel positioned at the start of the LZFSE stream
+     * @throws IOException
+     * @see LZFSEIndex#build(java.nio.channels.SeekableByteChannel)
+     */
+    public SeekableLZFSEChannel(@WillCloseWhenClosed SeekableByteChannel ch) throws IOException {
+        this(ch, LZFSEIndex.build(ch));
+    }
+
+    @Nonnull
+    public LZFSEIndex index() {
+        return index;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= index.size()) {
+            return -1;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        int n;
+        try {
+            seek();
+            n = decode(dst);
+
+        } catch (IOException ex) {
+            // Decoder state is unknown, force a checkpoint restart.
+            decoded = -1;
+            throw ex;
+        }
+        position += n;
+        decoded += n;
+        return n;
+    }
+
+    int decode(ByteBuffer dst) throws IOException {
+        int n;
+        if (dst.hasArray()) {
+            n = decode(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+        } else {
+            if (buffer == null) {
+                buffer = new byte[16384];
+            }
+            n = decode(buffer, 0, Math.min(buffer.length, dst.remaining()));
+            if (n > 0) {
+                dst.put(buffer, 0, n);
+            }
+        }
+        if (n == -1) {
+            throw new LZFSEDecoderException("unexpected end of stream, stale index?");
+        }
+        return n;
+    }
+
+    int decode(byte[] b, int off, int len) throws IOException {
+        int n;
+        do {
+            n = is.read(b, off, len);
+        } while (n == 0);
+        return n;
+    }
+
+    void seek() throws IOException {
+        if (decoded == position) {
+            return;
+        }
+        int checkpoint = index.checkpoint(position);
+        long checkpointPosition = index.checkpointPosition(checkpoint);
+        if (decoded < checkpointPosition || decoded > position) {
+            ch.position(index.checkpointOffset(checkpoint));
+            is.restart(index.checkpointWindow(checkpoint), checkpointPosition);
+            decoded = checkpointPosition;
+        }
+        while (decoded < position) {
+            long n = is.skip(position - decoded);
+            if (n <= 0) {
+                throw new LZFSEDecoderException("unexpected end of stream, stale index?");
+            }
+            decoded += n;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableLZFSEChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return index.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) throws IOException {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            ch.close();
+        }
+    }
+
+    void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SeekableLZFSEChannel{"
+                + "index=" + index
+                + ", position=" + position
+                + ", decoded=" + decoded
+                + ", open=" + open
+                + '}';
+    }
+}
@@ -24,11 +24,8 @@
 package com.github.horrorho.ragingmoose;
 
 import java.util.Objects;
-import java.util.function.BiConsumer;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import javax.annotation.concurrent.NotThreadSafe;
@@ -95,13 +92,25 @@ final class TANS<T extends TANS.Entry> {
     }
 
     @Nonnull
-    static <T> T[] table(int n, Supplier<T> cons, IntFunction<T[]> generator) throws LZFSEDecoderException {
+    static Entry[] entries(int n) throws LZFSEDecoderException {
+        return entries(n, Entry[]::new, Entry::new);
+    }
+
+    @Nonnull
+    static <T extends Entry> T[] entries(int n, IntFunction<T[]> array, Supplier<T> entry)
+            throws LZFSEDecoderException {
+        T[] table = array.apply(length(n));
+        for (int i = 0; i < n; i++) {
+            table[i] = entry.get();
+        }
+        return table;
+    }
+
+    static int length(int n) throws LZFSEDecoderException {
         if (n < 0) {
             throw new LZFSEDecoderException();
         }
-        return Stream.generate(cons)
-                .limit(n)
-                .toArray(generator);
+        return n;
     }
 
     private final T[] table;
@@ -112,10 +121,6 @@ final class TANS<T extends TANS.Entry> {
         this.nZero = Integer.numberOfLeadingZeros(table.length);
     }
 
-    TANS(int n, Supplier<T> cons, IntFunction<T[]> generator) throws LZFSEDecoderException {
-        this(TANS.<T>table(n, cons, generator));
-    }
-
     @Nonnull
     T transition(State state, BitInStream in) {
         T e = table[state.value()];
@@ -123,15 +128,19 @@ final class TANS<T extends TANS.Entry> {
         return e;
     }
 
-    void foreach(BiConsumer<Integer, T> consumer) {
-        IntStream.range(0, table.length)
-                .forEachOrdered(i -> consumer.accept(i, table[i]));
+    @Nonnull
+    T entry(int i) {
+        return table[i];
+    }
+
+    int size() {
+        return table.length;
     }
 
     @Nonnull
     TANS<T> init(short[] weights) throws LZFSEDecoderException {
         if (weights.length > 256) {
-            throw new LZFSEDecoderException();
+            throw LZFSEStatusException.CORRUPT;
         }
         try {
             for (int i = 0, t = 0; i < weights.length; i++) {
@@ -140,7 +149,7 @@ final class TANS<T extends TANS.Entry> {
             return this;
 
         } catch (ArrayIndexOutOfBoundsException ex) {
-            throw new LZFSEDecoderException(ex);
+            throw LZFSEStatusException.CORRUPT;
         }
     }
 
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * tANS encoder, the inverse of {@link TANS} over the same normalized frequencies.
+ * <p>
+ * Encoding runs backwards. Given the decoder state following a symbol, the encoder writes the bits the decoder reads in
+ * its transition and returns the decoder state preceding the symbol. The state left once all symbols are encoded is
+ * the decoder's initial state.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class TANSEncoder {
+
+    /**
+     * Normalizes symbol counts to frequencies summing to nStates, every occurring symbol receiving a non-zero frequency.
+     * Rounds to nearest, assigning any remainder to the most frequent symbol. Large overruns are spread across all
+     * symbols.
+     *
+     * @param counts
+     * @param freq
+     * @param nStates power of 2, at least the number of symbols
+     */
+    static void normalize(int[] counts, short[] freq, int nStates) {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long step = total == 0
+                ? 0
+                : (1L << 31) / total;
+        int shift = Integer.numberOfLeadingZeros(nStates) - 1;
+        int remaining = nStates;
+        int max = 0;
+        int maxSymbol = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int f = (int) ((counts[i] * step >>> shift) + 1 >>> 1);
+            if (f == 0 && counts[i] != 0) {
+                f = 1;
+            }
+            freq[i] = (short) f;
+            remaining -= f;
+            if (f > max) {
+                max = f;
+                maxSymbol = i;
+            }
+        }
+        if (total == 0) {
+            return;
+        }
+        if (-remaining < max >> 2) {
+            freq[maxSymbol] += remaining;
+        } else {
+            adjust(freq, -remaining);
+        }
+    }
+
+    static void adjust(short[] freq, int overrun) {
+        for (int shift = 3; overrun != 0; shift--) {
+            for (int i = 0; i < freq.length && overrun != 0; i++) {
+                if (freq[i] > 1) {
+                    int n = Math.min((freq[i] - 1) >> shift, overrun);
+                    freq[i] -= n;
+                    overrun -= n;
+                }
+            }
+        }
+    }
+
+    private final int nStates;
+    private final int nZero;
+    private final int[] start;
+    private final int[] freq;
+    private final int[] nBits;
+    private final int[] threshold;
+
+    TANSEncoder(int nStates, int nSymbols) {
+        this.nStates = nStates;
+        this.nZero = Integer.numberOfLeadingZeros(nStates);
+        this.start = new int[nSymbols];
+        this.freq = new int[nSymbols];
+        this.nBits = new int[nSymbols];
+        this.threshold = new int[nSymbols];
+    }
+
+    @Nonnull
+    TANSEncoder init(short[] weights) {
+        // Mirrors TANS#fill: a symbol of weight w holds w consecutive decoder states, the first x with k bit
+        // transitions into the upper states, the remainder with k - 1 bit transitions from state 0 upwards.
+        for (int i = 0, t = 0; i < weights.length; i++) {
+            int w = weights[i];
+            start[i] = t;
+            freq[i] = w;
+            if (w > 0) {
+                int k = Integer.numberOfLeadingZeros(w) - nZero;
+                nBits[i] = k;
+                threshold[i] = (w << k) - nStates;
+            }
+            t += w;
+        }
+        return this;
+    }
+
+    int encode(int state, int symbol, BitOutStream out) {
+        int k = nBits[symbol];
+        if (state < threshold[symbol]) {
+            int n = k - 1;
+            out.write(state & (1 << n) - 1, n);
+            int x = (nStates << 1 >>> k) - freq[symbol];
+            return start[symbol] + x + (state >>> n);
+        } else {
+            int s = state + nStates;
+            out.write(s & (1 << k) - 1, k);
+            return start[symbol] + (s >>> k) - freq[symbol];
+        }
+    }
+}
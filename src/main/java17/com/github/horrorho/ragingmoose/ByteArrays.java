@@ -0,0 +1,82 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Byte array primitives, Java 17+ variant. Little-endian loads and stores via byte array view VarHandles, which
+ * compile to single unaligned memory accesses.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+final class ByteArrays {
+
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, LITTLE_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, LITTLE_ENDIAN);
+    private static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, LITTLE_ENDIAN);
+
+    private ByteArrays() {
+    }
+
+    static long getLongLE(byte[] b, int off) {
+        return (long) LONG_LE.get(b, off);
+    }
+
+    static int getIntLE(byte[] b, int off) {
+        return (int) INT_LE.get(b, off);
+    }
+
+    static int getShortLE(byte[] b, int off) {
+        return (short) SHORT_LE.get(b, off) & 0xFFFF;
+    }
+
+    static void putIntLE(byte[] b, int off, int v) {
+        INT_LE.set(b, off, v);
+    }
+
+    static void putLongLE(byte[] b, int off, long v) {
+        LONG_LE.set(b, off, v);
+    }
+
+    static void expand(byte[] b, int off, int d, int len) {
+        // Overlapped pattern expansion, b[off + i] = b[off + i - d] for i < len. Distances of 8 or more copy a word at
+        // a time, no word read overlaps its own write.
+        int n = off + len;
+        if (d >= 8) {
+            for (; off <= n - 8; off += 8) {
+                LONG_LE.set(b, off, (long) LONG_LE.get(b, off - d));
+            }
+        }
+        for (; off < n; off++) {
+            b[off] = b[off - d];
+        }
+    }
+}
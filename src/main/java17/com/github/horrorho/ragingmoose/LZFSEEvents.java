@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events, per stream, Java 17+ variant. The baseline is compiled against the Java 8 API, which
+ * lacks jdk.jfr, and is a no-op.
+ * <p>
+ * The jdk.jfr module may still be absent from a runtime image. Events are only ever loaded if it is present, see
+ * {@link #AVAILABLE}. Events are allocated only whilst enabled in a recording, decoding is otherwise allocation free.
+ * <p>
+ * Block events span header parsing through to the start of the following block. Streams are pull based, so decode
+ * time includes any time the consumer spends between reads. Block events carry a 1 ms default threshold, adjustable
+ * in the recording settings, so that only slow blocks are recorded.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+final class LZFSEEvents {
+
+    static final String CATEGORY = "RagingMoose";
+
+    @Name("com.github.horrorho.ragingmoose.StreamOpen")
+    @Label("LZFSE Stream Open")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StreamOpenEvent extends Event {
+
+        @Label("Source")
+        String source;
+    }
+
+    @Name("com.github.horrorho.ragingmoose.StreamClose")
+    @Label("LZFSE Stream Close")
+    @Description("Spans the stream from open to close")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StreamCloseEvent extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Decoded")
+        @DataAmount
+        long decoded;
+
+        @Label("Blocks")
+        int blocks;
+
+        @Label("End Of Stream")
+        boolean eos;
+    }
+
+    @Name("com.github.horrorho.ragingmoose.Block")
+    @Label("LZFSE Block")
+    @Description("Block decode, from header parsing to the start of the following block")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class BlockEvent extends Event {
+
+        @Label("Magic")
+        String magic;
+
+        @Label("Raw Bytes")
+        @DataAmount
+        int nRawBytes;
+
+        @Label("Payload Bytes")
+        @DataAmount
+        int nPayloadBytes;
+
+        @Label("Literal Payload Bytes")
+        @Description("LZFSE blocks only")
+        @DataAmount
+        int nLiteralPayloadBytes;
+
+        @Label("LMD Payload Bytes")
+        @Description("LZFSE blocks only")
+        @DataAmount
+        int nLmdPayloadBytes;
+
+        @Label("Table Build Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long tableNanos;
+
+        @Label("Decode Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long decodeNanos;
+    }
+
+    private static final class Probes {
+
+        // Enablement is per event class, probes spare an allocation per check.
+        static final StreamOpenEvent OPEN = new StreamOpenEvent();
+        static final StreamCloseEvent CLOSE = new StreamCloseEvent();
+        static final BlockEvent BLOCK = new BlockEvent();
+    }
+
+    static final boolean AVAILABLE = available();
+
+    static boolean available() {
+        try {
+            Class.forName("jdk.jfr.Event", false, LZFSEEvents.class.getClassLoader());
+            return true;
+
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    @Nullable
+    private StreamCloseEvent stream;
+    @Nullable
+    private BlockEvent block;
+    private long ready;
+    private int blocks;
+
+    void open(Object source) {
+        blocks = 0;
+        if (Probes.OPEN.isEnabled()) {
+            StreamOpenEvent event = new StreamOpenEvent();
+            event.source = source.getClass().getName();
+            event.commit();
+        }
+        if (Probes.CLOSE.isEnabled()) {
+            stream = new StreamCloseEvent();
+            stream.source = source.getClass().getName();
+            stream.begin();
+        }
+    }
+
+    void close(long decoded, boolean eos) {
+        end();
+        if (stream != null) {
+            stream.decoded = decoded;
+            stream.blocks = blocks;
+            stream.eos = eos;
+            stream.commit();
+            stream = null;
+        }
+    }
+
+    void begin() {
+        end();
+        if (Probes.BLOCK.isEnabled()) {
+            block = new BlockEvent();
+            block.begin();
+        }
+    }
+
+    void header(String magic, int nRawBytes, int nPayloadBytes, int nLiteralPayloadBytes, int nLmdPayloadBytes) {
+        blocks++;
+        if (block != null) {
+            block.magic = magic;
+            block.nRawBytes = nRawBytes;
+            block.nPayloadBytes = nPayloadBytes;
+            block.nLiteralPayloadBytes = nLiteralPayloadBytes;
+            block.nLmdPayloadBytes = nLmdPayloadBytes;
+            ready = System.nanoTime();
+        }
+    }
+
+    void tables() {
+        if (block != null) {
+            long t = System.nanoTime();
+            block.tableNanos = t - ready;
+            ready = t;
+        }
+    }
+
+    void end() {
+        // Closes the pending block, the end of stream block is not recorded.
+        if (block != null) {
+            block.end();
+            if (block.magic != null && block.shouldCommit()) {
+                block.decodeNanos = System.nanoTime() - ready;
+                block.commit();
+            }
+            block = null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Runs against the baseline and, on JDK 17+, the versioned ByteArrays.
+ *
+ * @author Ayesha
+ */
+public class ByteArraysTest {
+
+    @Test
+    public void loadTest() {
+        byte[] bs = new byte[64];
+        new Random(0).nextBytes(bs);
+        ByteBuffer bb = ByteBuffer.wrap(bs).order(LITTLE_ENDIAN);
+        for (int i = 0; i <= bs.length - 8; i++) {
+            assertEquals("long " + i, bb.getLong(i), ByteArrays.getLongLE(bs, i));
+            assertEquals("int " + i, bb.getInt(i), ByteArrays.getIntLE(bs, i));
+            assertEquals("short " + i, bb.getShort(i) & 0xFFFF, ByteArrays.getShortLE(bs, i));
+        }
+    }
+
+    @Test
+    public void storeTest() {
+        Random random = new Random(0);
+        byte[] expected = new byte[64];
+        byte[] actual = new byte[64];
+        ByteBuffer bb = ByteBuffer.wrap(expected).order(LITTLE_ENDIAN);
+        for (int i = 0; i <= actual.length - 8; i++) {
+            long v = random.nextLong();
+            bb.putLong(i, v);
+            ByteArrays.putLongLE(actual, i, v);
+            assertArrayEquals("long " + i, expected, actual);
+            bb.putInt(i, (int) v);
+            ByteArrays.putIntLE(actual, i, (int) v);
+            assertArrayEquals("int " + i, expected, actual);
+        }
+    }
+
+    @Test
+    public void expandTest() {
+        Random random = new Random(0);
+        for (int d = 1; d < 24; d++) {
+            for (int len = 0; len < 48; len++) {
+                byte[] expected = new byte[8 + d + len];
+                random.nextBytes(expected);
+                byte[] actual = expected.clone();
+                for (int i = 8 + d; i < expected.length; i++) {
+                    expected[i] = expected[i - d];
+                }
+                ByteArrays.expand(actual, 8 + d, d, len);
+                assertArrayEquals("d=" + d + " len=" + len, expected, actual);
+            }
+        }
+    }
+}
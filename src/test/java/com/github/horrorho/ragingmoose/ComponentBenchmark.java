@@ -0,0 +1,399 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoder stage microbenchmarks, on synthetic inputs generated in process: TANS table construction and transitions,
+ * BitInStream refills, MatchBuffer matches by distance distribution, LZVN opcode dispatch and V2 header frequency table
+ * decoding.
+ *
+ * @author Ayesha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UnlockDiagnosticVMOptions", "-XX:+DebugNonSafepoints"})
+public class ComponentBenchmark {
+
+    static final int TRANSITIONS = 1024;
+
+    @State(Scope.Thread)
+    public static class TANSState {
+
+        @Param({"l", "d", "literal"})
+        public String table;
+
+        short[] weights;
+        TANS<TANS.Entry> tans;
+        ByteBuffer bits;
+
+        @Setup
+        public void setup() throws LZFSEDecoderException {
+            int nStates;
+            int nSymbols;
+            switch (table) {
+                case "l":
+                    nStates = LZFSEConstants.ENCODE_L_STATES;
+                    nSymbols = LZFSEConstants.ENCODE_L_SYMBOLS;
+                    break;
+                case "d":
+                    nStates = LZFSEConstants.ENCODE_D_STATES;
+                    nSymbols = LZFSEConstants.ENCODE_D_SYMBOLS;
+                    break;
+                default:
+                    nStates = LZFSEConstants.ENCODE_LITERAL_STATES;
+                    nSymbols = LZFSEConstants.ENCODE_LITERAL_SYMBOLS;
+            }
+            weights = weights(nSymbols, nStates, new Random(nStates));
+            tans = new TANS<>(TANS.entries(nStates)).init(weights);
+            bits = random(TRANSITIONS * 2 + 64, nStates);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BitsState {
+
+        @Param({"1", "8", "12"})
+        public int maxWidth;
+
+        int[] widths;
+        ByteBuffer bits;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(maxWidth);
+            widths = new int[TRANSITIONS];
+            for (int i = 0; i < widths.length; i++) {
+                widths[i] = 1 + random.nextInt(maxWidth);
+            }
+            bits = random(TRANSITIONS * maxWidth / 8 + 64, maxWidth);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class MatchState {
+
+        @Param({"short", "medium", "long", "mixed"})
+        public String distance;
+
+        final MatchBuffer mb = new MatchBuffer(LZFSEConstants.MATCH_BUFFER_SIZE);
+        final byte[] out = new byte[256];
+        int[] ds;
+        int[] ms;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(distance.hashCode());
+            byte[] history = new byte[LZFSEConstants.MATCH_BUFFER_SIZE];
+            random.nextBytes(history);
+            mb.write(history, 0, history.length);
+
+            ds = new int[TRANSITIONS];
+            ms = new int[TRANSITIONS];
+            for (int i = 0; i < ds.length; i++) {
+                String kind = distance.equals("mixed")
+                        ? new String[]{"short", "medium", "long"}[random.nextInt(3)]
+                        : distance;
+                switch (kind) {
+                    case "short":
+                        ds[i] = 1 + random.nextInt(15);
+                        break;
+                    case "medium":
+                        ds[i] = 16 + random.nextInt(4080);
+                        break;
+                    default:
+                        ds[i] = 4096 + random.nextInt(LZFSEConstants.MATCH_BUFFER_SIZE - 4096);
+                }
+                ms[i] = 3 + random.nextInt(out.length - 3);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LZVNState {
+
+        final MatchBuffer mb = new MatchBuffer(LZFSEConstants.MATCH_BUFFER_SIZE);
+        final LZVNBlockHeader header = new LZVNBlockHeader();
+        final LZVNBlockDecoder decoder = new LZVNBlockDecoder(mb);
+        final byte[] out = new byte[16384];
+        ByteBuffer block;
+
+        @Setup
+        public void setup() {
+            block = lzvn(4096, new Random(0));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class HeaderState {
+
+        final short[] lFreq = new short[LZFSEConstants.ENCODE_L_SYMBOLS];
+        final short[] mFreq = new short[LZFSEConstants.ENCODE_M_SYMBOLS];
+        final short[] dFreq = new short[LZFSEConstants.ENCODE_D_SYMBOLS];
+        final short[] literalFreq = new short[LZFSEConstants.ENCODE_LITERAL_SYMBOLS];
+        ByteBuffer tables;
+
+        @Setup
+        public void setup() {
+            Random random = new Random(0);
+            tables = freqTables(
+                    weights(lFreq.length, LZFSEConstants.ENCODE_L_STATES, random),
+                    weights(mFreq.length, LZFSEConstants.ENCODE_M_STATES, random),
+                    weights(dFreq.length, LZFSEConstants.ENCODE_D_STATES, random),
+                    weights(literalFreq.length, LZFSEConstants.ENCODE_LITERAL_STATES, random));
+        }
+    }
+
+    @Benchmark
+    public TANS<TANS.Entry> tansInit(TANSState s) throws LZFSEDecoderException {
+        return s.tans.init(s.weights);
+    }
+
+    @Benchmark
+    public int tansTransition(TANSState s) throws LZFSEDecoderException {
+        s.bits.position(s.bits.limit());
+        BitInStream in = new BitInStream(s.bits).init(0);
+        TANS.State state = new TANS.State();
+        int x = 0;
+        for (int i = 0; i < TRANSITIONS; i += 4) {
+            in.fill();
+            x += s.tans.transition(state, in).symbol();
+            x += s.tans.transition(state, in).symbol();
+            x += s.tans.transition(state, in).symbol();
+            x += s.tans.transition(state, in).symbol();
+        }
+        return x;
+    }
+
+    @Benchmark
+    public long bitInStreamFillRead(BitsState s) throws LZFSEDecoderException {
+        s.bits.position(s.bits.limit());
+        BitInStream in = new BitInStream(s.bits).init(0);
+        long x = 0;
+        for (int i = 0; i < s.widths.length; i += 4) {
+            in.fill();
+            x += in.read(s.widths[i]);
+            x += in.read(s.widths[i + 1]);
+            x += in.read(s.widths[i + 2]);
+            x += in.read(s.widths[i + 3]);
+        }
+        return x;
+    }
+
+    @Benchmark
+    public int matchBufferMatch(MatchState s) {
+        int x = 0;
+        for (int i = 0; i < s.ds.length; i++) {
+            s.mb.match(s.ds[i], s.out, 0, s.ms[i]);
+            x += s.out[0];
+        }
+        return x;
+    }
+
+    @Benchmark
+    public int matchBufferMatchByte(MatchState s) {
+        int x = 0;
+        for (int i = 0; i < s.ds.length; i++) {
+            for (int j = 0, d = s.ds[i]; j < s.ms[i]; j++) {
+                x += s.mb.match(d);
+            }
+        }
+        return x;
+    }
+
+    @Benchmark
+    public long lzvnDispatch(LZVNState s) throws IOException {
+        // Opcode decoding and literal skipping only, no match execution.
+        s.block.rewind();
+        ByteBufferSourceChannel ch = new ByteBufferSourceChannel(s.block);
+        return s.decoder.init(s.header.load(ch), ch).verify(Long.MAX_VALUE / 2);
+    }
+
+    @Benchmark
+    public long lzvnDecode(LZVNState s) throws IOException {
+        s.block.rewind();
+        ByteBufferSourceChannel ch = new ByteBufferSourceChannel(s.block);
+        s.decoder.init(s.header.load(ch), ch);
+        long n = 0;
+        int r;
+        while ((r = s.decoder.read(s.out, 0, s.out.length)) > 0) {
+            n += r;
+        }
+        return n;
+    }
+
+    @Benchmark
+    public short[] initV2Tables(HeaderState s) throws LZFSEDecoderException {
+        s.tables.rewind();
+        LZFSEBlockHeader.initV2Tables(s.tables, s.lFreq, s.mFreq, s.dFreq, s.literalFreq);
+        return s.literalFreq;
+    }
+
+    static ByteBuffer random(int length, long seed) {
+        byte[] bs = new byte[length];
+        new Random(seed).nextBytes(bs);
+        return ByteBuffer.wrap(bs).order(LITTLE_ENDIAN);
+    }
+
+    static short[] weights(int nSymbols, int nStates, Random random) {
+        // Skewed, normalized to nStates, every symbol present.
+        short[] weights = new short[nSymbols];
+        int remaining = nStates - nSymbols;
+        for (int i = 0; i < nSymbols; i++) {
+            weights[i] = 1;
+        }
+        while (remaining > 0) {
+            int i = Math.min(nSymbols - 1, (int) Math.abs(random.nextGaussian() * nSymbols / 4));
+            int w = Math.min(remaining, 1 + random.nextInt(4));
+            weights[i] += w;
+            remaining -= w;
+        }
+        return weights;
+    }
+
+    static ByteBuffer freqTables(short[]... tables) {
+        // V2 header frequency encoding, variable length codes packed LSB first.
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        long accum = 0;
+        int accumNBits = 0;
+        for (short[] table : tables) {
+            for (short v : table) {
+                int bits;
+                int nBits;
+                if (v < 2) {
+                    bits = v << 1;
+                    nBits = 2;
+                } else if (v < 4) {
+                    bits = 1 | (v - 2) << 2;
+                    nBits = 3;
+                } else if (v < 8) {
+                    bits = 3 | (v - 4) << 3;
+                    nBits = 5;
+                } else if (v < 24) {
+                    bits = 7 | (v - 8) << 4;
+                    nBits = 8;
+                } else {
+                    bits = 15 | (v - 24) << 4;
+                    nBits = 14;
+                }
+                accum |= (long) bits << accumNBits;
+                accumNBits += nBits;
+                while (accumNBits >= 8) {
+                    baos.write((int) accum);
+                    accum >>>= 8;
+                    accumNBits -= 8;
+                }
+            }
+        }
+        if (accumNBits > 0) {
+            baos.write((int) accum);
+        }
+        return ByteBuffer.wrap(baos.toByteArray()).order(LITTLE_ENDIAN);
+    }
+
+    static ByteBuffer lzvn(int nOps, Random random) {
+        // LZVN block, less magic, exercising every opcode class: small/ medium/ large/ previous distance matches, small
+        // literals and small matches.
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        int n = 15;
+        payload.write(0xEF);
+        literals(payload, 15, random);
+        for (int i = 0; i < nOps; i++) {
+            int l = random.nextInt(3);
+            int mmm = random.nextInt(4);
+            int m = mmm + 3;
+            int d;
+            switch (random.nextInt(6)) {
+                case 0:
+                    d = 1 + random.nextInt(Math.min(n, 1535));
+                    payload.write(l << 6 | mmm << 3 | d >>> 8);
+                    payload.write(d);
+                    break;
+                case 1:
+                    l = 1 + random.nextInt(2);
+                    payload.write(l << 6 | mmm << 3 | 6);
+                    break;
+                case 2:
+                    d = 1 + random.nextInt(Math.min(n, 65535));
+                    payload.write(l << 6 | mmm << 3 | 7);
+                    payload.write(d);
+                    payload.write(d >>> 8);
+                    break;
+                case 3:
+                    d = 1 + random.nextInt(Math.min(n, 16383));
+                    m = 3 + random.nextInt(32);
+                    int s = d << 2 | (m - 3) & 0x03;
+                    payload.write(0xA0 | l << 3 | (m - 3) >>> 2);
+                    payload.write(s);
+                    payload.write(s >>> 8);
+                    break;
+                case 4:
+                    l = 1 + random.nextInt(15);
+                    m = 0;
+                    payload.write(0xE0 | l);
+                    break;
+                default:
+                    l = 0;
+                    m = 1 + random.nextInt(15);
+                    payload.write(0xF0 | m);
+            }
+            literals(payload, l, random);
+            n += l + m;
+        }
+        payload.write(0x06);
+        payload.write(new byte[7], 0, 7);
+
+        byte[] bs = payload.toByteArray();
+        return ByteBuffer.allocate(8 + bs.length)
+                .order(LITTLE_ENDIAN)
+                .putInt(n)
+                .putInt(bs.length)
+                .put(bs);
+    }
+
+    static void literals(ByteArrayOutputStream payload, int n, Random random) {
+        for (int i = 0; i < n; i++) {
+            payload.write('a' + random.nextInt(26));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Benchmark and test corpora built offline from lzfse.test blocks and {@link TCGen} data.
+ * <p>
+ * The checked in per block type fixtures, lzfse-bvx-.test, lzfse-bvxn.test, lzfse-bvx1.test and lzfse-bvx2.test, were
+ * generated with {@link #main(java.lang.String[])}. They share the lzfse.test format: SHA-256 digest | LZFSE stream.
+ *
+ * @author Ayesha
+ */
+@Immutable
+@ParametersAreNonnullByDefault
+public class Corpus {
+
+    public static final int RAW = 0x2d787662;
+    public static final int LZVN = 0x6e787662;
+    public static final int V1 = 0x31787662;
+    public static final int V2 = 0x32787662;
+    public static final int EOS = 0x24787662;
+
+    public static final String[] TYPES = {"bvx-", "bvxn", "bvx1", "bvx2"};
+
+    /**
+     * Writes the per block type fixtures.
+     *
+     * @param args output directory
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    public static void main(String[] args) throws IOException, NoSuchAlgorithmException {
+        Path dir = Paths.get(args.length == 0 ? "src/test/resources" : args[0]);
+        for (String type : TYPES) {
+            Files.write(dir.resolve("lzfse-" + type + ".test"), fixture(type));
+        }
+    }
+
+    /**
+     * Builds a single block fixture: SHA-256 digest | LZFSE stream. Uncompressed blocks are TCGen words, compressed
+     * blocks are the first lzfse.test block of that type.
+     *
+     * @param type
+     * @return fixture
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    @Nonnull
+    public static byte[] fixture(String type) throws IOException, NoSuchAlgorithmException {
+        byte[] stream = type.equals("bvx-")
+                ? raw(read(TCGen.words(0, 4093, 256, 8)))
+                : stream(type, 1);
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(decode(stream));
+        return ByteBuffer.allocate(digest.length + stream.length)
+                .put(digest)
+                .put(stream)
+                .array();
+    }
+
+    /**
+     * Returns a checked in fixture, less its leading SHA-256 digest.
+     *
+     * @param type
+     * @return LZFSE stream
+     * @throws IOException
+     */
+    @Nonnull
+    public static byte[] fixture(String type, boolean digest) throws IOException {
+        byte[] bs = resource("lzfse-" + type + ".test");
+        return digest
+                ? Arrays.copyOf(bs, 32)
+                : Arrays.copyOfRange(bs, 32, bs.length);
+    }
+
+    /**
+     * Returns the lzfse.test resource, less its leading SHA-256 digest.
+     *
+     * @return LZFSE stream
+     * @throws IOException
+     */
+    @Nonnull
+    public static byte[] lzfseTest() throws IOException {
+        byte[] bs = resource("lzfse.test");
+        return Arrays.copyOfRange(bs, 32, bs.length);
+    }
+
+    @Nonnull
+    static byte[] resource(String name) throws IOException {
+        try (InputStream is = Corpus.class.getClassLoader().getResourceAsStream(name)) {
+            if (is == null) {
+                throw new IOException("missing resource: " + name);
+            }
+            return read(is);
+        }
+    }
+
+    @Nonnull
+    static byte[] read(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ProcessAssistant.copy(is, baos, new byte[16384]);
+        return baos.toByteArray();
+    }
+
+    @Nonnull
+    static byte[] decode(byte[] stream) throws IOException {
+        return read(new LZFSEInputStream(new ByteArrayInputStream(stream)));
+    }
+
+    /**
+     * Splits a stream into its blocks, excluding the end of stream block.
+     *
+     * @param stream
+     * @return blocks
+     * @throws IOException
+     */
+    @Nonnull
+    public static List<byte[]> blocks(byte[] stream) throws IOException {
+        List<byte[]> blocks = new ArrayList<>();
+        ByteBuffer src = ByteBuffer.wrap(stream);
+        LZFSEInputStream is = new LZFSEInputStream(new ByteBufferSourceChannel(src));
+        byte[] buffer = new byte[16384];
+        int start = src.position();
+        while (is.nextBlock()) {
+            while (is.readBlock(buffer, 0, buffer.length) > 0) {
+            }
+            blocks.add(Arrays.copyOfRange(stream, start, src.position()));
+            start = src.position();
+        }
+        return blocks;
+    }
+
+    /**
+     * Returns the block magic.
+     *
+     * @param block
+     * @return magic
+     */
+    public static int magic(byte[] block) {
+        return ByteBuffer.wrap(block).order(LITTLE_ENDIAN).getInt(0);
+    }
+
+    /**
+     * Returns the decoded length of a block.
+     *
+     * @param block
+     * @return decoded length
+     */
+    public static int rawBytes(byte[] block) {
+        return ByteBuffer.wrap(block).order(LITTLE_ENDIAN).getInt(4);
+    }
+
+    /**
+     * Builds a stream of a single block type decoding to at least the given length. Compressed blocks are repeats of
+     * the first lzfse.test block of that type, uncompressed blocks are random text.
+     *
+     * @param magic
+     * @param length
+     * @return LZFSE stream
+     * @throws IOException
+     */
+    @Nonnull
+    public static byte[] stream(int magic, int length) throws IOException {
+        if (magic == RAW) {
+            return raw(text(length, length));
+        }
+        for (byte[] block : blocks(lzfseTest())) {
+            if (magic(block) == magic) {
+                return repeat(block, Math.max(1, (length + rawBytes(block) - 1) / rawBytes(block)));
+            }
+        }
+        throw new IllegalArgumentException("no block: 0x" + Integer.toHexString(magic));
+    }
+
+    /**
+     * Builds a stream of a single block type by name: bvx-, bvxn, bvx1 or bvx2.
+     *
+     * @param type
+     * @param length
+     * @return LZFSE stream
+     * @throws IOException
+     * @see #stream(int, int)
+     */
+    @Nonnull
+    public static byte[] stream(String type, int length) throws IOException {
+        return stream(magic(type), length);
+    }
+
+    public static int magic(String type) {
+        switch (type) {
+            case "bvx-":
+                return RAW;
+            case "bvxn":
+                return LZVN;
+            case "bvx1":
+                return V1;
+            case "bvx2":
+                return V2;
+            default:
+                throw new IllegalArgumentException("bad block type: " + type);
+        }
+    }
+
+    @Nonnull
+    static byte[] repeat(byte[] block, int n) {
+        ByteBuffer bb = ByteBuffer.allocate(block.length * n + 4).order(LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) {
+            bb.put(block);
+        }
+        return bb.putInt(EOS).array();
+    }
+
+    @Nonnull
+    static byte[] raw(byte[] data) {
+        return ByteBuffer.allocate(12 + data.length)
+                .order(LITTLE_ENDIAN)
+                .putInt(RAW)
+                .putInt(data.length)
+                .put(data)
+                .putInt(EOS)
+                .array();
+    }
+
+    @Nonnull
+    static byte[] text(int length, long seed) {
+        Random random = new Random(seed);
+        byte[] bs = new byte[length];
+        for (int i = 0; i < length; i++) {
+            int r = random.nextInt(32);
+            bs[i] = (byte) (r < 6 ? ' ' : 'a' + r - 6);
+        }
+        return bs;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * End to end decoding by block type, decoded length, read API and input source.
+ * <p>
+ * Lengths mirror LZFSEInputStreamTest.LENGTHS, rounded up to whole blocks for compressed block types. Debug
+ * information at non-safepoints is retained for -prof perfasm.
+ *
+ * @author Ayesha
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UnlockDiagnosticVMOptions", "-XX:+DebugNonSafepoints"})
+public class DecodeBenchmark {
+
+    @Param({"bvx-", "bvxn", "bvx1", "bvx2"})
+    public String type;
+
+    @Param({"4093", "65532", "1000000"})
+    public int length;
+
+    private final byte[] small = new byte[64];
+    private final byte[] large = new byte[65536];
+
+    private byte[] data;
+    private Path path;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = Corpus.stream(type, length);
+        path = Files.createTempFile("lzfse", ".bench");
+        Files.write(path, data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public void readByte(Blackhole bh) throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            int b;
+            while ((b = is.read()) != -1) {
+                bh.consume(b);
+            }
+        }
+    }
+
+    @Benchmark
+    public long readSmallBuffer() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            return drain(is, small);
+        }
+    }
+
+    @Benchmark
+    public long readLargeBuffer() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            return drain(is, large);
+        }
+    }
+
+    @Benchmark
+    public long readChannel() throws IOException {
+        try (InputStream is = new LZFSEInputStream(Channels.newChannel(new ByteArrayInputStream(data)))) {
+            return drain(is, large);
+        }
+    }
+
+    @Benchmark
+    public long readFileChannel() throws IOException {
+        try (FileChannel ch = FileChannel.open(path);
+                InputStream is = new LZFSEInputStream(ch)) {
+            return drain(is, large);
+        }
+    }
+
+    @Benchmark
+    public long transferTo(Blackhole bh) throws IOException {
+        try (FileChannel ch = FileChannel.open(path);
+                LZFSEInputStream is = new LZFSEInputStream(ch)) {
+            return is.transferTo(new BlackholeOutputStream(bh));
+        }
+    }
+
+    static long drain(InputStream is, byte[] buffer) throws IOException {
+        long n = 0;
+        int r;
+        while ((r = is.read(buffer)) != -1) {
+            n += r;
+        }
+        return n;
+    }
+
+    static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole bh;
+
+        BlackholeOutputStream(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void write(int b) {
+            bh.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bh.consume(b);
+        }
+    }
+}
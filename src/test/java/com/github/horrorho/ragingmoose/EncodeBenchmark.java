@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LZFSEOutputStream encoding over TCGen words, repeats and random data. LZVNEncoder encodes into a retained
+ * destination, reusing its hash table.
+ *
+ * @author Ayesha
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param({"words", "repeats", "random"})
+    public String type;
+
+    @Param({"4000", "1048576"})
+    public int length;
+
+    private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+    private final LZVNEncoder lzvnEncoder = new LZVNEncoder();
+
+    private byte[] data;
+    private byte[] dst;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = LZFSEOutputStreamTest.data(type, length);
+        dst = new byte[LZVNEncoder.maxEncodedSize(length)];
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        baos.reset();
+        try (LZFSEOutputStream os = new LZFSEOutputStream(baos)) {
+            os.write(data);
+        }
+        return baos.size();
+    }
+
+    @Benchmark
+    public int lzvn() {
+        return lzvnEncoder.encode(data, 0, data.length, dst, 0);
+    }
+}
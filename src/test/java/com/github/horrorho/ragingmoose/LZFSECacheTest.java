@@ -0,0 +1,161 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.composite;
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.decode;
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.raw;
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.resource;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author Ayesha
+ */
+@RunWith(JUnitParamsRunner.class)
+public class LZFSECacheTest {
+
+    @Test
+    @Parameters({"false", "true"})
+    public void cacheTest(boolean direct) throws IOException {
+        byte[] resource = resource("lzfse.test");
+        byte[] bs = Arrays.copyOfRange(resource, 32, resource.length);
+        byte[] expected = decode(bs);
+
+        LZFSECache cache = new LZFSECache(1 << 20, 4, direct);
+        for (int i = 0; i < 3; i++) {
+            ByteBuffer bb = cache.get(bs);
+            assertTrue("read only", bb.isReadOnly());
+            byte[] decoded = new byte[bb.remaining()];
+            bb.get(decoded);
+            assertArrayEquals("decoded", expected, decoded);
+        }
+        assertEquals("hits", 2, cache.hits());
+        assertEquals("misses", 1, cache.misses());
+        assertEquals("count", 1, cache.count());
+        assertEquals("weight", bs.length + expected.length, cache.weight());
+    }
+
+    @Test
+    public void evictionTest() throws IOException {
+        LZFSECache cache = new LZFSECache(4 * 1100, 1, false);
+        for (int i = 0; i < 10; i++) {
+            byte[] data = new byte[500];
+            Arrays.fill(data, (byte) i);
+            cache.get(raw(data));
+        }
+        assertEquals("count", 4, cache.count());
+        assertEquals("evictions", 6, cache.evictions());
+        assertTrue("weight", cache.weight() <= 4 * 1100);
+
+        // Most recently used entries are retained.
+        byte[] data = new byte[500];
+        Arrays.fill(data, (byte) 9);
+        cache.get(raw(data));
+        assertEquals("hits", 1, cache.hits());
+    }
+
+    @Test
+    @Parameters({"false", "true"})
+    public void sizedTest(boolean direct) throws IOException {
+        // Every block type, decoded into a buffer sized from the block headers.
+        byte[] bs = composite(0);
+        byte[] expected = decode(bs);
+        assertEquals("size", expected.length, LZFSEDecompressor.decodedSize(ByteBuffer.wrap(bs)));
+        assertEquals("truncated", -1, LZFSEDecompressor.decodedSize(ByteBuffer.wrap(bs, 0, bs.length - 1)));
+
+        ByteBuffer bb = new LZFSECache(1 << 20, 1, direct).get(bs);
+        assertEquals("capacity", expected.length, bb.capacity());
+        byte[] decoded = new byte[bb.remaining()];
+        bb.get(decoded);
+        assertArrayEquals("decoded", expected, decoded);
+    }
+
+    @Test(expected = LZFSEDecoderException.class)
+    public void corruptTest() throws IOException {
+        byte[] bs = composite(0);
+        bs[97] ^= 0x55;
+        new LZFSECache(1 << 20).get(bs);
+    }
+
+    @Test
+    public void hostileSizeTest() throws IOException {
+        // 28 bytes declaring 2 GB, an lzvn block holding just the end of stream opcode.
+        byte[] bs = new byte[28];
+        ByteBuffer.wrap(bs).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(0x6e787662)
+                .putInt(2000000000)
+                .putInt(12)
+                .put((byte) 0x06)
+                .putInt(24, 0x24787662);
+        assertEquals("declared", 2000000000, LZFSEDecompressor.decodedSize(ByteBuffer.wrap(bs)));
+        assertEquals("presize", -1, LZFSECache.presize(2000000000, bs.length));
+
+        ByteBuffer bb = new LZFSECache(1 << 20, 1, true).get(bs);
+        assertEquals("decoded", 0, bb.capacity());
+    }
+
+    @Test
+    public void oversizedTest() throws IOException {
+        // Heavier than a segment's share of the capacity, but not the capacity itself.
+        byte[] bs = raw(new byte[1000]);
+
+        LZFSECache cache = new LZFSECache(4 * 1100, 4, false);
+        cache.get(bs);
+        cache.get(bs);
+        assertEquals("count", 0, cache.count());
+        assertEquals("misses", 2, cache.misses());
+
+        LZFSECache single = new LZFSECache(4 * 1100, 1, false);
+        single.get(bs);
+        single.get(bs);
+        assertEquals("single count", 1, single.count());
+        assertEquals("single hits", 1, single.hits());
+    }
+
+    @Test
+    public void clearTest() throws IOException {
+        LZFSECache cache = new LZFSECache(1 << 20);
+        byte[] bs = raw(new byte[100]);
+        cache.get(bs);
+        cache.get(bs);
+        cache.clear();
+        assertEquals("count", 0, cache.count());
+        assertEquals("weight", 0, cache.weight());
+        assertEquals("hits", 1, cache.hits());
+        assertEquals("evictions", 0, cache.evictions());
+        cache.get(bs);
+        assertEquals("misses", 2, cache.misses());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.composite;
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.decode;
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.resource;
+import static com.github.horrorho.ragingmoose.ProcessAssistant.copy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author Ayesha
+ */
+public class LZFSECompiledStreamTest {
+
+    private final byte[] buffer = new byte[1000];
+
+    @Test
+    public void compileTest() throws IOException {
+        byte[] resource = resource("lzfse.test");
+        byte[] bs = Arrays.copyOfRange(resource, 32, resource.length);
+        byte[] expected = decode(bs);
+
+        LZFSECompiledStream cs = LZFSECompiledStream.compile(new ByteArrayInputStream(bs));
+        assertEquals("size", expected.length, cs.size());
+        assertEquals("blocks", 5, cs.blocks());
+        assertArrayEquals("decode", expected, cs.decode());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = cs.newInputStream()) {
+            copy(is, baos, buffer);
+        }
+        assertArrayEquals("newInputStream", expected, baos.toByteArray());
+    }
+
+    @Test
+    public void concurrentTest() throws IOException, InterruptedException, ExecutionException {
+        byte[] bs = composite(0);
+        byte[] expected = decode(bs);
+        LZFSECompiledStream cs = LZFSECompiledStream.compile(new ByteArrayInputStream(bs));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit((Callable<byte[]>) cs::decode));
+            }
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals("decode", expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = LZFSEDecoderException.class)
+    public void badDistanceTest() throws IOException {
+        // bvxn: L=0 M=8 D=64 without preceding output.
+        byte[] bs = new byte[]{
+            0x62, 0x76, 0x78, 0x6e, 8, 0, 0, 0, 10, 0, 0, 0,
+            0x28, 0x40, 0x06, 0, 0, 0, 0, 0, 0, 0,
+            0x62, 0x76, 0x78, 0x24};
+        LZFSECompiledStream.compile(new ByteArrayInputStream(bs));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.composite;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Ayesha
+ */
+public class LZFSEEventsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eventsTest() throws IOException {
+        assumeTrue(LZFSEEvents.AVAILABLE);
+        byte[] bs = composite(0);
+        byte[] decoded;
+
+        Path path = folder.newFile("events.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.horrorho.ragingmoose.StreamOpen");
+            recording.enable("com.github.horrorho.ragingmoose.StreamClose");
+            recording.enable("com.github.horrorho.ragingmoose.Block").withThreshold(Duration.ZERO);
+            recording.start();
+            try (LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+                decoded = Corpus.read(is);
+            }
+            recording.stop();
+            recording.dump(path);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(path);
+
+        assertEquals("open", 1, count(events, "StreamOpen"));
+        RecordedEvent close = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith("StreamClose"))
+                .findFirst()
+                .get();
+        assertEquals("decoded", decoded.length, close.getLong("decoded"));
+        assertEquals("blocks", 7, close.getInt("blocks"));
+        assertTrue("eos", close.getBoolean("eos"));
+
+        List<RecordedEvent> blocks = events.stream()
+                .filter(e -> e.getEventType().getName().endsWith("Block"))
+                .collect(Collectors.toList());
+        assertEquals("block events", 7, blocks.size());
+        assertEquals("raw bytes", decoded.length, blocks.stream().mapToLong(e -> e.getInt("nRawBytes")).sum());
+        assertEquals("bvx2", 2, blocks.stream().filter(e -> "bvx2".equals(e.getString("magic"))).count());
+    }
+
+    @Test
+    public void thresholdTest() throws IOException {
+        assumeTrue(LZFSEEvents.AVAILABLE);
+        Path path = folder.newFile("threshold.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.horrorho.ragingmoose.Block").withThreshold(Duration.ofHours(1));
+            recording.start();
+            Corpus.read(new LZFSEInputStream(new ByteArrayInputStream(Corpus.lzfseTest())));
+            recording.stop();
+            recording.dump(path);
+        }
+        assertEquals("block events", 0, count(RecordingFile.readAllEvents(path), "Block"));
+    }
+
+    static long count(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals("com.github.horrorho.ragingmoose." + name))
+                .count();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.composite;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.stream.LongStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Ayesha
+ */
+public class LZFSEHistogramTracerTest {
+
+    @Test
+    public void histogramTest() throws IOException {
+        byte[] bs = composite(0);
+        LZFSEHistogramTracer tracer = new LZFSEHistogramTracer();
+        byte[] decoded = Corpus.read(new LZFSEInputStream(new ByteArrayInputStream(bs)).tracer(tracer));
+
+        assertEquals("bvx-", 2, tracer.blocks("bvx-"));
+        assertEquals("bvxn", 2, tracer.blocks("bvxn"));
+        assertEquals("bvx1", 1, tracer.blocks("bvx1"));
+        assertEquals("bvx2", 2, tracer.blocks("bvx2"));
+
+        long total = tracer.rawBytes("bvx-");
+        for (String type : new String[]{"bvxn", "bvx1", "bvx2"}) {
+            assertEquals(type + " decoded", tracer.rawBytes(type), tracer.literals(type) + tracer.matchBytes(type));
+            assertEquals(type + " match lengths", tracer.matches(type), sum(tracer.matchLengthHistogram(type)));
+            assertEquals(type + " distances", tracer.matches(type), sum(tracer.distanceHistogram(type)));
+            assertTrue(type + " max distance", tracer.maxDistance(type) <= LZFSEConstants.MATCH_BUFFER_SIZE);
+            total += tracer.rawBytes(type);
+        }
+        assertEquals("raw bytes", decoded.length, total);
+        // The trailing LZVN block matches 64 bytes back into the uncompressed block.
+        assertTrue("bvxn distance", tracer.distanceHistogram("bvxn")[LZFSEHistogramTracer.bucket(64)] > 0);
+
+        String report = tracer.report();
+        assertTrue(report, report.contains("bvx2 blocks=2"));
+        assertTrue(report, report.contains("window: maxD="));
+
+        tracer.reset();
+        assertEquals("reset", 0, tracer.blocks("bvx2"));
+    }
+
+    @Test
+    public void bucketTest() {
+        assertEquals(0, LZFSEHistogramTracer.bucket(0));
+        assertEquals(1, LZFSEHistogramTracer.bucket(1));
+        assertEquals(2, LZFSEHistogramTracer.bucket(3));
+        assertEquals(3, LZFSEHistogramTracer.bucket(4));
+        assertEquals(19, LZFSEHistogramTracer.bucket(LZFSEConstants.MATCH_BUFFER_SIZE));
+    }
+
+    static long sum(long[] histogram) {
+        return LongStream.of(histogram).sum();
+    }
+}
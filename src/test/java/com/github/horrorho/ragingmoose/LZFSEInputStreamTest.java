@@ -29,20 +29,37 @@ import static com.github.horrorho.ragingmoose.ProcessAssistant.newInputStream;
 import static com.github.horrorho.ragingmoose.ProcessAssistant.newPipedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
 import javax.annotation.Nullable;
 import junitparams.JUnitParamsRunner;
 import junitparams.Parameters;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 
 /**
@@ -69,6 +86,9 @@ public class LZFSEInputStreamTest {
 
     private final byte[] buffer = new byte[16384];
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     public LZFSEInputStreamTest() {
     }
 
@@ -102,6 +122,564 @@ public class LZFSEInputStreamTest {
         assertArrayEquals("SHA-256", digest, _digest);
     }
 
+    /**
+     * Per block type fixtures. Format as lzfse.test.
+     *
+     * @param type
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    @Test
+    @Parameters({"bvx-", "bvxn", "bvx1", "bvx2"})
+    public void fixtureTest(String type) throws IOException, NoSuchAlgorithmException {
+        byte[] bs = Corpus.fixture(type, false);
+        assertEquals(type, Corpus.magic(type), Corpus.magic(bs));
+
+        byte[] decoded = decode(bs);
+        assertArrayEquals(type, Corpus.fixture(type, true), MessageDigest.getInstance("SHA-256").digest(decoded));
+        assertEquals(type, decoded.length, LZFSEVerifier.verify(new ByteArrayInputStream(bs)));
+    }
+
+    /**
+     * TCGen data is deterministic and length independent.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void tcgenPortTest() throws IOException {
+        TCGen[] a = {
+            TCGen.words(1, 100000, 256, 8),
+            TCGen.repeats(1, 100000, 100, 10, 16),
+            TCGen.runs(1, 100000, 64),
+            TCGen.entropy(1, 100000, 3),
+            TCGen.varyingEntropy(1, 100000, 1000)};
+        TCGen[] b = {
+            TCGen.words(1, 50000, 256, 8),
+            TCGen.repeats(1, 50000, 100, 10, 16),
+            TCGen.runs(1, 50000, 64),
+            TCGen.entropy(1, 50000, 3),
+            TCGen.varyingEntropy(1, 50000, 1000)};
+        for (int i = 0; i < a.length; i++) {
+            byte[] x = Corpus.read(a[i]);
+            byte[] y = Corpus.read(b[i]);
+            assertEquals("length:" + i, 100000, x.length);
+            assertArrayEquals("prefix:" + i, Arrays.copyOf(x, y.length), y);
+            assertArrayEquals("raw:" + i, x, decode(raw(x)));
+        }
+    }
+
+    /**
+     * Uncompressed block streams, spanning multiple internal buffer fills.
+     *
+     * @param len
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"0", "1", "8191", "8192", "8193", "100000"})
+    public void rawTest(int len) throws IOException {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(raw(data)))) {
+            copy(is, baos, buffer);
+        }
+
+        assertArrayEquals("raw:" + len, data, baos.toByteArray());
+    }
+
+    /**
+     * Block headers declaring huge payloads must not force huge allocations.
+     *
+     * @throws IOException
+     */
+    @Test(expected = EOFException.class)
+    public void rawTruncatedTest() throws IOException {
+        byte[] bs = Arrays.copyOf(raw(new byte[16]), 16);
+        ByteBuffer.wrap(bs).order(LITTLE_ENDIAN).putInt(4, Integer.MAX_VALUE);
+
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            copy(is, new ByteArrayOutputStream(), buffer);
+        }
+    }
+
+    /**
+     * Matches may reference uncompressed block output, whichever path the raw bytes were read through.
+     *
+     * @param len
+     * @param bufferLength
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"64, 1", "64, 16384", "300000, 1", "300000, 16384"})
+    public void rawMatchTest(int len, int bufferLength) throws IOException {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+
+        // bvxn: L=0 M=8 D=64, eos
+        byte[] payload = new byte[]{0x28, 0x40, 0x06, 0, 0, 0, 0, 0, 0, 0};
+        byte[] bs = ByteBuffer.allocate(8 + data.length + 12 + payload.length + 4)
+                .order(LITTLE_ENDIAN)
+                .putInt(0x2d787662)
+                .putInt(data.length)
+                .put(data)
+                .putInt(0x6e787662)
+                .putInt(8)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt(0x24787662)
+                .array();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            copy(is, baos, new byte[bufferLength]);
+        }
+
+        byte[] expected = Arrays.copyOf(data, len + 8);
+        System.arraycopy(data, len - 64, expected, len, 8);
+        assertArrayEquals("raw match:" + len, expected, baos.toByteArray());
+    }
+
+    /**
+     * LZVN medium distance matches, distances with the high operand bit set.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void lzvnMediumDistanceTest() throws IOException {
+        byte[] data = new byte[20000];
+        new Random(0).nextBytes(data);
+
+        // bvxn: 101LLMMM DDDDDDMM DDDDDDDD, L=0 M=8 D=10000, eos
+        int s = 10000 << 2 | 1;
+        byte[] payload = new byte[]{(byte) 0xA1, (byte) s, (byte) (s >>> 8), 0x06, 0, 0, 0, 0, 0, 0, 0};
+        byte[] bs = ByteBuffer.allocate(8 + data.length + 12 + payload.length + 4)
+                .order(LITTLE_ENDIAN)
+                .putInt(0x2d787662)
+                .putInt(data.length)
+                .put(data)
+                .putInt(0x6e787662)
+                .putInt(8)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt(0x24787662)
+                .array();
+
+        byte[] expected = Arrays.copyOf(data, data.length + 8);
+        System.arraycopy(data, data.length - 10000, expected, data.length, 8);
+        assertArrayEquals("lzvn medium distance", expected, decode(bs));
+    }
+
+    /**
+     * Channel to channel transfers.
+     *
+     * @param len
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"7", "100000", "1000000"})
+    public void transferToTest(int len) throws IOException {
+        byte[] data = new byte[len];
+        new Random(len).nextBytes(data);
+
+        Path path = folder.newFile().toPath();
+        Files.write(path, raw(data));
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (FileChannel ch = FileChannel.open(path);
+                LZFSEInputStream is = new LZFSEInputStream(ch)) {
+            is.read();
+            is.transferTo(Channels.newChannel(baos));
+        }
+
+        assertArrayEquals("transferTo:" + len, Arrays.copyOfRange(data, 1, len), baos.toByteArray());
+    }
+
+    /**
+     * Skip then read, over plain and seekable channels. lzfse.test blocks, an uncompressed block spanning the match
+     * window and an LZVN block matching into it.
+     *
+     * @param n
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"0", "1", "8193", "8194", "21575", "100000", "321574", "321575", "321583", "1000000"})
+    public void skipTest(long n) throws IOException {
+        byte[] bs = composite(n);
+        byte[] decoded = decode(bs);
+        byte[] expected = Arrays.copyOfRange(decoded, (int) Math.min(n, decoded.length), decoded.length);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            assertEquals("skip:" + n, Math.min(n, decoded.length), is.skip(n));
+            copy(is, baos, buffer);
+        }
+        assertArrayEquals("skip:" + n, expected, baos.toByteArray());
+
+        Path path = folder.newFile().toPath();
+        Files.write(path, bs);
+        baos.reset();
+        try (FileChannel ch = FileChannel.open(path);
+                InputStream is = new LZFSEInputStream(ch)) {
+            assertEquals("skip seekable:" + n, Math.min(n, decoded.length), is.skip(n));
+            copy(is, baos, buffer);
+        }
+        assertArrayEquals("skip seekable:" + n, expected, baos.toByteArray());
+    }
+
+    /**
+     * Mark, read ahead by reads and skips, reset and read to the end.
+     *
+     * @param from
+     * @param ahead
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"0, 0", "0, 1", "1, 262144", "8000, 20000", "21000, 262144", "300000, 100000"})
+    public void markResetTest(int from, int ahead) throws IOException {
+        byte[] bs = composite(from);
+        byte[] decoded = decode(bs);
+        byte[] expected = Arrays.copyOfRange(decoded, from, decoded.length);
+
+        Path path = folder.newFile().toPath();
+        Files.write(path, bs);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (FileChannel ch = FileChannel.open(path);
+                InputStream is = new LZFSEInputStream(ch)) {
+            assertTrue("markSupported", is.markSupported());
+            is.skip(from);
+            is.mark(ahead);
+            is.read(buffer, 0, Math.min(ahead, 1000));
+            is.skip(ahead - Math.min(ahead, 1000) - Math.min(ahead, 1));
+            is.read();
+            is.reset();
+            copy(is, baos, buffer);
+        }
+        assertArrayEquals("mark:" + from + ":" + ahead, expected, baos.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void markInvalidatedTest() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(composite(0)))) {
+            is.mark(Integer.MAX_VALUE);
+            is.skip(262145);
+            is.reset();
+        }
+    }
+
+    /**
+     * Fused checksums over mixed reads, skips, mark/ reset replays and transfers.
+     *
+     * @param n
+     * @throws IOException
+     */
+    @Test
+    @Parameters({"0", "1", "8193", "100000", "321575"})
+    public void checksumTest(long n) throws IOException {
+        byte[] bs = composite(n);
+        CRC32 expected = new CRC32();
+        expected.update(decode(bs));
+
+        CRC32 crc32 = new CRC32();
+        try (LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            is.checksum(crc32, expected.getValue());
+            is.read();
+            is.mark(1000);
+            is.read(buffer, 0, 1000);
+            is.reset();
+            is.skip(n);
+            is.transferTo(new ByteArrayOutputStream());
+        }
+        assertEquals("checksum:" + n, expected.getValue(), crc32.getValue());
+    }
+
+    @Test
+    public void digestTest() throws IOException, NoSuchAlgorithmException {
+        byte[] bs = resource("lzfse.test");
+        try (LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs, 32, bs.length - 32))) {
+            is.digest(MessageDigest.getInstance("SHA-256"), Arrays.copyOf(bs, 32));
+            copy(is, new ByteArrayOutputStream(), buffer);
+        }
+    }
+
+    @Test(expected = LZFSEDecoderException.class)
+    public void digestMismatchTest() throws IOException, NoSuchAlgorithmException {
+        byte[] bs = resource("lzfse.test");
+        try (LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs, 32, bs.length - 32))) {
+            is.digest(MessageDigest.getInstance("SHA-256"), new byte[32]);
+            copy(is, new ByteArrayOutputStream(), buffer);
+        }
+    }
+
+    /**
+     * Non-throwing decoding of intact, truncated, corrupted and oversized streams.
+     *
+     * @param truncate
+     * @param corrupt
+     * @param dstLength
+     * @param status
+     * @throws IOException
+     */
+    @Test
+    @Parameters({
+        "0, -1, 400000, OK",
+        "0, -1, 321583, OK",
+        "0, -1, 321582, OVERFLOW",
+        "1, -1, 400000, TRUNCATED",
+        "20000, -1, 400000, TRUNCATED",
+        "12478, -1, 400000, TRUNCATED",
+        "0, 0, 400000, CORRUPT",
+        "0, 4883, 400000, CORRUPT"})
+    public void tryDecompressTest(int truncate, int corrupt, int dstLength, LZFSEResult.Status status)
+            throws IOException {
+        byte[] bs = composite(0);
+        byte[] decoded = decode(bs);
+        bs = Arrays.copyOf(bs, bs.length - truncate);
+        if (corrupt >= 0) {
+            bs[corrupt] ^= 0x55;
+        }
+
+        ByteBuffer dst = ByteBuffer.allocate(dstLength);
+        LZFSEResult result = LZFSEDecompressor.tryDecompress(ByteBuffer.wrap(bs), dst);
+
+        assertEquals("status:" + result, status, result.status());
+        assertEquals("decoded:" + result, dst.position(), result.decoded());
+        assertArrayEquals("output:" + result,
+                Arrays.copyOf(decoded, dst.position()),
+                Arrays.copyOf(dst.array(), dst.position()));
+    }
+
+    @Test
+    public void decompressReuseTest() throws IOException {
+        byte[] bs = composite(0);
+        byte[] decoded = decode(bs);
+        byte[] corrupt = bs.clone();
+        corrupt[97] ^= 0x55;
+        LZFSEDecompressor decompressor = new LZFSEDecompressor();
+        for (byte[] src : new byte[][]{bs, corrupt, Arrays.copyOf(bs, 20000), bs}) {
+            ByteBuffer dst = ByteBuffer.allocateDirect(400000);
+            LZFSEResult expected = LZFSEDecompressor.tryDecompress(ByteBuffer.wrap(src), ByteBuffer.allocate(400000));
+            LZFSEResult result = decompressor.decompress(ByteBuffer.wrap(src), dst);
+
+            assertEquals("status", expected.status(), result.status());
+            assertEquals("decoded", expected.decoded(), result.decoded());
+            byte[] output = new byte[dst.position()];
+            ((ByteBuffer) dst.flip()).get(output);
+            assertArrayEquals("output", Arrays.copyOf(decoded, output.length), output);
+        }
+    }
+
+    /**
+     * Decoders signal malformed block data with a shared stackless exception, callers see a conventional one.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void corruptTest() throws IOException {
+        byte[] bs = composite(0);
+        // Inside the first bvx1 payload, so the failure surfaces from deep within the block decoder.
+        bs[97] ^= 0x55;
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            copy(is, new ByteArrayOutputStream(), buffer);
+            fail("corrupt stream decoded");
+
+        } catch (LZFSEDecoderException ex) {
+            assertNotSame("signal", LZFSEStatusException.CORRUPT, ex);
+            assertTrue("stack trace", ex.getStackTrace().length > 0);
+            assertTrue("message", ex.getMessage().startsWith("bad block data at: "));
+        }
+        assertEquals("status", LZFSEResult.Status.CORRUPT,
+                LZFSEDecompressor.tryDecompress(ByteBuffer.wrap(bs), ByteBuffer.allocate(400000)).status());
+    }
+
+    /**
+     * Randomly damaged and truncated streams fail as malformed data, never as internal errors from out of bounds
+     * reads.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void damagedTest() throws IOException {
+        byte[] bs = composite(0);
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            byte[] damaged = bs.clone();
+            for (int j = random.nextInt(3); j >= 0; j--) {
+                // Compressed blocks lead the composite stream.
+                damaged[random.nextInt(13000)] = (byte) random.nextInt();
+            }
+            if (random.nextBoolean()) {
+                damaged = Arrays.copyOf(damaged, random.nextInt(damaged.length));
+            }
+            try {
+                decode(damaged);
+            } catch (EOFException ex) {
+                // Truncated.
+            } catch (LZFSEDecoderException ex) {
+                assertNull("cause: " + i, ex.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void verifyTest() throws IOException {
+        byte[] bs = composite(0);
+        assertEquals("verify", decode(bs).length, LZFSEVerifier.verify(new ByteArrayInputStream(bs)));
+
+        Path path = folder.newFile().toPath();
+        Files.write(path, bs);
+        try (FileChannel ch = FileChannel.open(path)) {
+            assertEquals("verify seekable", decode(bs).length, LZFSEVerifier.verify(ch));
+        }
+    }
+
+    @Test(expected = LZFSEDecoderException.class)
+    public void verifyBadDistanceTest() throws IOException {
+        // bvxn: L=0 M=8 D=64 with only 16 bytes of history
+        byte[] payload = new byte[]{0x28, 0x40, 0x06, 0, 0, 0, 0, 0, 0, 0};
+        byte[] bs = ByteBuffer.allocate(8 + 16 + 12 + payload.length + 4)
+                .order(LITTLE_ENDIAN)
+                .putInt(0x2d787662)
+                .putInt(16)
+                .put(new byte[16])
+                .putInt(0x6e787662)
+                .putInt(8)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt(0x24787662)
+                .array();
+        LZFSEVerifier.verify(new ByteArrayInputStream(bs));
+    }
+
+    @Test(expected = EOFException.class)
+    public void verifyTruncatedTest() throws IOException {
+        byte[] bs = composite(0);
+        LZFSEVerifier.verify(new ByteArrayInputStream(Arrays.copyOf(bs, 20000)));
+    }
+
+    @Test
+    public void blockBoundaryReadTest() throws IOException {
+        // Reads never return 0 for a positive length, block boundaries included.
+        byte[] bs = composite(0);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            int n;
+            while ((n = is.read(buffer, 0, buffer.length)) != -1) {
+                assertTrue("read: " + n, n > 0);
+                baos.write(buffer, 0, n);
+            }
+        }
+        assertArrayEquals(decode(bs), baos.toByteArray());
+    }
+
+    @Test
+    public void allocationTest() throws IOException {
+        // Reused streams, once warmed up, decode every block type without allocating.
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+
+        ByteBuffer[] sources = new ByteBuffer[]{
+            ByteBuffer.wrap(Corpus.fixture("bvx-", false)),
+            ByteBuffer.wrap(Corpus.fixture("bvxn", false)),
+            ByteBuffer.wrap(Corpus.fixture("bvx1", false)),
+            ByteBuffer.wrap(Corpus.fixture("bvx2", false)),
+            ByteBuffer.wrap(composite(0))};
+        ByteBufferSourceChannel[] channels = new ByteBufferSourceChannel[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            channels[i] = new ByteBufferSourceChannel(sources[i]);
+        }
+        LZFSEInputStream is = new LZFSEInputStream(channels[0]);
+        byte[] buffer = new byte[16384];
+
+        long expected = decodeAll(is, sources, channels, buffer);
+        for (int i = 0; i < 200; i++) {
+            assertEquals("warm up", expected, decodeAll(is, sources, channels, buffer));
+        }
+
+        // Sporadic JIT activity, deoptimization rematerializing scalar replaced objects, may allocate a few KB. Any
+        // object allocated per decode, at least 16 bytes, exceeds the 1 byte per decode bound.
+        long id = Thread.currentThread().getId();
+        int decodes = 0;
+        long before = mx.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 2000; i++) {
+            decodeAll(is, sources, channels, buffer);
+            decodes += sources.length;
+        }
+        long allocated = mx.getThreadAllocatedBytes(id) - before;
+        assertTrue("allocated bytes: " + allocated + " over decodes: " + decodes, allocated < decodes);
+    }
+
+    static long decodeAll(LZFSEInputStream is, ByteBuffer[] sources, ByteBufferSourceChannel[] channels, byte[] buffer)
+            throws IOException {
+        long n = 0;
+        for (int i = 0; i < sources.length; i++) {
+            sources[i].rewind();
+            is.reuse(channels[i]);
+            int k;
+            while ((k = is.read(buffer, 0, buffer.length)) != -1) {
+                n += k;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * lzfse.test blocks, an uncompressed block spanning the match window and an LZVN block matching into it.
+     *
+     * @param seed
+     * @return LZFSE stream
+     * @throws IOException
+     */
+    static byte[] composite(long seed) throws IOException {
+        byte[] resource = resource("lzfse.test");
+        byte[] data = new byte[300000];
+        new Random(seed).nextBytes(data);
+        byte[] payload = new byte[]{0x28, 0x40, 0x06, 0, 0, 0, 0, 0, 0, 0};
+        return ByteBuffer.allocate(resource.length - 36 + 8 + data.length + 12 + payload.length + 4)
+                .order(LITTLE_ENDIAN)
+                .put(resource, 32, resource.length - 36)
+                .putInt(0x2d787662)
+                .putInt(data.length)
+                .put(data)
+                .putInt(0x6e787662)
+                .putInt(8)
+                .putInt(payload.length)
+                .put(payload)
+                .putInt(0x24787662)
+                .array();
+    }
+
+    static byte[] decode(byte[] bs) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs))) {
+            copy(is, baos, new byte[16384]);
+        }
+        return baos.toByteArray();
+    }
+
+    static byte[] resource(String name) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = LZFSEInputStreamTest.class.getClassLoader().getResourceAsStream(name)) {
+            assertNotNull(name, is);
+            copy(is, baos, new byte[16384]);
+        }
+        return baos.toByteArray();
+    }
+
+    static byte[] raw(byte[] data) {
+        return ByteBuffer.allocate(12 + data.length)
+                .order(LITTLE_ENDIAN)
+                .putInt(0x2d787662)
+                .putInt(data.length)
+                .put(data)
+                .putInt(0x24787662)
+                .array();
+    }
+
     /**
      * Tcgen data into LZFSE external compressor into RagingMoose decompressor.
      *
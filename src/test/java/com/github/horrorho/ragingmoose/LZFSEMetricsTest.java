@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEInputStreamTest.composite;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Metrics are fixed at class initialisation, enabled tests run in the separate metrics surefire execution.
+ *
+ * @author Ayesha
+ */
+@RunWith(JUnitParamsRunner.class)
+public class LZFSEMetricsTest {
+
+    @Test
+    public void disabledTest() throws IOException {
+        assumeFalse(LZFSEMetrics.enabled());
+        LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(Corpus.lzfseTest()));
+        Corpus.read(is);
+        assertEquals("blocks", 0, is.stats().blocks());
+        assertEquals("global", 0, LZFSEMetrics.global().stats().decodedBytes());
+    }
+
+    @Test
+    @Parameters({"bvx-", "bvxn", "bvx1", "bvx2"})
+    public void blockTest(String type) throws IOException {
+        assumeTrue(LZFSEMetrics.enabled());
+        byte[] bs = Corpus.fixture(type, false);
+        LZFSEInputStream is = new LZFSEInputStream(new ByteArrayInputStream(bs));
+        byte[] decoded = Corpus.read(is);
+
+        LZFSEStats stats = is.stats();
+        assertEquals("blocks", 1, stats.blocks());
+        assertEquals("type", 1, type.equals("bvx-") ? stats.rawBlocks()
+                : type.equals("bvxn") ? stats.lzvnBlocks()
+                : type.equals("bvx1") ? stats.v1Blocks()
+                : stats.v2Blocks());
+        assertEquals("compressed bytes", bs.length, stats.compressedBytes());
+        assertEquals("decoded bytes", decoded.length, stats.decodedBytes());
+        if (!type.equals("bvx-")) {
+            assertEquals("literals + match bytes", decoded.length, stats.literals() + stats.matchBytes());
+            assertTrue("matches", stats.matches() > 0);
+            assertTrue("average match length", stats.averageMatchLength() >= 3);
+            assertTrue("average match distance", stats.averageMatchDistance() >= 1);
+            assertTrue("entropy nanos", stats.entropyNanos() > 0);
+        }
+    }
+
+    @Test
+    public void globalTest() throws IOException, JMException {
+        assumeTrue(LZFSEMetrics.enabled());
+        byte[] bs = composite(0);
+        LZFSEStats before = LZFSEMetrics.global().stats();
+        byte[] decoded = Corpus.read(new LZFSEInputStream(new ByteArrayInputStream(bs)));
+        LZFSEStats after = LZFSEMetrics.global().stats();
+
+        // lzfse.test blocks, a raw and an LZVN block.
+        assertEquals("raw blocks", 2, after.rawBlocks() - before.rawBlocks());
+        assertEquals("lzvn blocks", 2, after.lzvnBlocks() - before.lzvnBlocks());
+        assertEquals("v1 blocks", 1, after.v1Blocks() - before.v1Blocks());
+        assertEquals("v2 blocks", 2, after.v2Blocks() - before.v2Blocks());
+        assertEquals("compressed bytes", bs.length, after.compressedBytes() - before.compressedBytes());
+        assertEquals("decoded bytes", decoded.length, after.decodedBytes() - before.decodedBytes());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(LZFSEMetrics.OBJECT_NAME);
+        assertTrue("registered", server.isRegistered(name));
+        assertTrue("mxbean", (Long) server.getAttribute(name, "DecodedBytes") >= after.decodedBytes());
+    }
+
+    @Test
+    public void reuseTest() throws IOException {
+        assumeTrue(LZFSEMetrics.enabled());
+        byte[] bs = Corpus.fixture("bvx2", false);
+        ByteBuffer src = ByteBuffer.wrap(bs);
+        ByteBufferSourceChannel ch = new ByteBufferSourceChannel(src);
+        LZFSEInputStream is = new LZFSEInputStream(ch);
+        byte[] buffer = new byte[4096];
+        for (int i = 0; i < 3; i++) {
+            src.rewind();
+            is.reuse(ch);
+            while (is.read(buffer, 0, buffer.length) != -1) {
+            }
+            assertEquals("blocks", 1, is.stats().blocks());
+            assertEquals("compressed bytes", bs.length, is.stats().compressedBytes());
+        }
+    }
+}
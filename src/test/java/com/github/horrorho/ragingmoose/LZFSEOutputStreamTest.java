@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.ProcessAssistant.copy;
+import static com.github.horrorho.ragingmoose.ProcessAssistant.firstInPath;
+import static com.github.horrorho.ragingmoose.ProcessAssistant.newPipedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nullable;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author Ayesha
+ */
+@RunWith(JUnitParamsRunner.class)
+public class LZFSEOutputStreamTest {
+
+    @Nullable
+    private static final String LZFSE = firstInPath("lzfse", "lzfse.exe").orElse(null);
+
+    private final byte[] buffer = new byte[16384];
+
+    static byte[] data(String type, int length) throws IOException {
+        switch (type) {
+            case "words":
+                return Corpus.read(TCGen.words(length, length, 1000, 12));
+            case "repeats":
+                return Corpus.read(TCGen.repeats(length, length, 100, 10, 256));
+            case "runs":
+                return Corpus.read(TCGen.runs(length, length, 64));
+            case "zeros":
+                return new byte[length];
+            case "random":
+                byte[] bs = new byte[length];
+                new Random(length).nextBytes(bs);
+                return bs;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+    }
+
+    static byte[] encode(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (LZFSEOutputStream os = new LZFSEOutputStream(baos)) {
+            os.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    static Set<Integer> magics(byte[] stream) throws IOException {
+        Set<Integer> magics = new TreeSet<>();
+        for (byte[] block : Corpus.blocks(stream)) {
+            magics.add(Corpus.magic(block));
+        }
+        return magics;
+    }
+
+    Object roundTrip() {
+        return new Object[]{
+            new Object[]{"words", 0},
+            new Object[]{"words", 1},
+            new Object[]{"words", 7},
+            new Object[]{"words", 4093},
+            new Object[]{"words", 65536},
+            new Object[]{"words", 65537},
+            new Object[]{"words", 1000000},
+            new Object[]{"repeats", 300000},
+            new Object[]{"runs", 300000},
+            new Object[]{"zeros", 4095},
+            new Object[]{"zeros", 1000000},
+            new Object[]{"random", 300000}
+        };
+    }
+
+    @Test
+    @Parameters(method = "roundTrip")
+    public void roundTripTest(String type, int length) throws IOException {
+        byte[] data = data(type, length);
+        byte[] stream = encode(data);
+
+        assertArrayEquals(type + ":" + length, data, Corpus.decode(stream));
+        assertArrayEquals(type + ":" + length, data, LZFSECompiledStream.compile(new ByteArrayInputStream(stream)).decode());
+    }
+
+    @Test
+    public void blockTypeTest() throws IOException {
+        byte[] small = encode(data("words", 2000));
+        assertEquals("small", new TreeSet<>(Arrays.asList(Corpus.LZVN)), magics(small));
+
+        byte[] large = encode(data("words", 1000000));
+        assertEquals("large", new TreeSet<>(Arrays.asList(Corpus.V2)), magics(large));
+        assertTrue("large: " + large.length, large.length < 1000000 / 2);
+
+        byte[] random = encode(data("random", 100000));
+        assertEquals("random", new TreeSet<>(Arrays.asList(Corpus.RAW)), magics(random));
+    }
+
+    @Test
+    public void writeTest() throws IOException {
+        // Single bytes, flushes and channels.
+        byte[] data = data("words", 200000);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (LZFSEOutputStream os = new LZFSEOutputStream(Channels.newChannel(baos))) {
+            for (int i = 0; i < data.length; i++) {
+                if (i % 30011 == 0) {
+                    os.flush();
+                }
+                os.write(data[i]);
+            }
+        }
+        assertArrayEquals(data, Corpus.decode(baos.toByteArray()));
+    }
+
+    @Test
+    @Parameters({"1", "4097", "4098", "4099", "4100"})
+    public void paddedLiteralsTest(int length) throws IOException {
+        // A single all literal bvx2 block, literals padded to a multiple of 4 past the block's raw size.
+        byte[] data = data("words", length);
+        int nTriples = (length + LZFSEConstants.ENCODE_MAX_L_VALUE - 1) / LZFSEConstants.ENCODE_MAX_L_VALUE;
+        int[] ls = new int[nTriples];
+        for (int i = 0; i < nTriples; i++) {
+            ls[i] = Math.min(LZFSEConstants.ENCODE_MAX_L_VALUE, length - i * LZFSEConstants.ENCODE_MAX_L_VALUE);
+        }
+        byte[] block = new byte[LZFSEBlockEncoder.MAX_BLOCK_BYTES + 4];
+        int n = new LZFSEBlockEncoder()
+                .encode(data, 0, ls, new int[nTriples], new int[nTriples], nTriples, length, block, 0);
+        ByteArrays.putIntLE(block, n, LZFSEConstants.ENDOFSTREAM_BLOCK_MAGIC);
+        byte[] stream = Arrays.copyOf(block, n + 4);
+
+        assertEquals("magics", new TreeSet<>(Arrays.asList(Corpus.V2)), magics(stream));
+        assertArrayEquals("decode", data, Corpus.decode(stream));
+    }
+
+    @Test(expected = IOException.class)
+    public void writeAfterFinishTest() throws IOException {
+        LZFSEOutputStream os = new LZFSEOutputStream(new ByteArrayOutputStream());
+        os.finish();
+        os.write(0);
+    }
+
+    /**
+     * RagingMoose compressor into LZFSE external decompressor.
+     *
+     * @param type
+     * @param length
+     * @throws IOException
+     */
+    @Test
+    @Parameters(method = "roundTrip")
+    public void roundTripTestExt(String type, int length) throws IOException {
+        assumeTrue("lzfse", LZFSE != null);
+
+        ProcessBuilder decode = new ProcessBuilder(LZFSE, "-decode");
+
+        byte[] data = data(type, length);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = newPipedInputStream(decode, new ByteArrayInputStream(encode(data)))) {
+            copy(is, baos, buffer);
+        }
+        assertArrayEquals(type + ":" + length, data, baos.toByteArray());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.util.Arrays;
+import java.util.Random;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author Ayesha
+ */
+@RunWith(JUnitParamsRunner.class)
+public class LZVNEncoderTest {
+
+    private final LZVNEncoder encoder = new LZVNEncoder();
+
+    byte[] encode(byte[] data) {
+        byte[] dst = new byte[LZVNEncoder.maxEncodedSize(data.length)];
+        int n = encoder.encode(data, 0, data.length, dst, 0);
+        return Arrays.copyOf(dst, n);
+    }
+
+    Object roundTrip() {
+        return new Object[]{
+            new Object[]{"words", 0},
+            new Object[]{"words", 1},
+            new Object[]{"words", 4},
+            new Object[]{"words", 100},
+            new Object[]{"words", 4095},
+            new Object[]{"words", 100000},
+            new Object[]{"repeats", 4095},
+            new Object[]{"runs", 4095},
+            new Object[]{"zeros", 4095},
+            new Object[]{"zeros", 100000},
+            new Object[]{"random", 4095}
+        };
+    }
+
+    @Test
+    @Parameters(method = "roundTrip")
+    public void roundTripTest(String type, int length) throws IOException {
+        byte[] data = LZFSEOutputStreamTest.data(type, length);
+        byte[] stream = encode(data);
+
+        assertArrayEquals(type + ":" + length, data, Corpus.decode(stream));
+        assertTrue(type + ":" + length, stream.length <= LZVNEncoder.maxEncodedSize(length));
+        if (length >= 4095) {
+            // Short inputs may store uncompressed.
+            int magic = Corpus.magic(Corpus.blocks(stream).get(0));
+            assertEquals(type + ":" + length, type.equals("random") ? Corpus.RAW : Corpus.LZVN, magic);
+        }
+    }
+
+    @Test
+    public void reuseTest() throws IOException {
+        // Stale table entries from earlier calls, at shifting source offsets, must never be matched.
+        Random random = new Random(0);
+        byte[] src = new byte[8192];
+        byte[] dst = new byte[LZVNEncoder.maxEncodedSize(src.length) + 64];
+        for (int i = 0; i < 1000; i++) {
+            byte[] data = LZFSEOutputStreamTest.data("words", 1 + random.nextInt(4096));
+            int off = random.nextInt(src.length - data.length);
+            int dstOff = random.nextInt(64);
+            Arrays.fill(src, (byte) ' ');
+            System.arraycopy(data, 0, src, off, data.length);
+            int n = encoder.encode(src, off, data.length, dst, dstOff);
+            assertArrayEquals("call: " + i, data, Corpus.decode(Arrays.copyOfRange(dst, dstOff, dstOff + n)));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void destinationTest() {
+        encoder.encode(new byte[100], 0, 100, new byte[111], 0);
+    }
+
+    /**
+     * Every opcode family, smlL/lrgL, smlM/lrgM, smlD/medD/lrgD/preD, over literal and match lengths and distances
+     * about the opcode boundaries. A match at distance 1 sets up each case, the following triple repeats or changes
+     * the distance.
+     *
+     * @throws IOException
+     */
+    @Test
+    public void emitTest() throws IOException {
+        Random random = new Random(0);
+        byte[] history = new byte[70000];
+        random.nextBytes(history);
+        byte[] literals = new byte[1000];
+        random.nextBytes(literals);
+
+        int[] lengths = {0, 1, 2, 3, 4, 15, 16, 17, 271, 272, 600};
+        int[] matches = {3, 4, 5, 6, 7, 8, 9, 10, 11, 15, 16, 34, 35, 271, 272, 2359};
+        int[] distances = {1, 2, 1535, 1536, 16383, 16384, 65535};
+        byte[] block = new byte[8192];
+        for (int l : lengths) {
+            for (int m : matches) {
+                for (int d : distances) {
+                    int q = LZVNBlockEncoder.HEADER_BYTES;
+                    q = LZVNBlockEncoder.emit(literals, 0, 1, 4, d, -1, block, q);
+                    for (int dPrev : new int[]{d, 1}) {
+                        int r = LZVNBlockEncoder.emit(literals, 1, l, m, d, dPrev, block, q);
+                        int n = LZVNBlockEncoder.eos(block, r);
+                        LZVNBlockEncoder.header(block, 0, 5 + l + m, n - LZVNBlockEncoder.HEADER_BYTES);
+
+                        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                        expected.write(history, 0, history.length);
+                        expected.write(literals, 0, 1);
+                        lmd(expected, 4, d);
+                        expected.write(literals, 1, l);
+                        lmd(expected, m, d);
+
+                        byte[] stream = ByteBuffer.allocate(8 + history.length + n + 4)
+                                .order(LITTLE_ENDIAN)
+                                .putInt(Corpus.RAW)
+                                .putInt(history.length)
+                                .put(history)
+                                .put(block, 0, n)
+                                .putInt(Corpus.EOS)
+                                .array();
+                        String message = "l=" + l + " m=" + m + " d=" + d + " dPrev=" + dPrev;
+                        assertArrayEquals(message, expected.toByteArray(), Corpus.decode(stream));
+                    }
+                }
+            }
+        }
+    }
+
+    static void lmd(ByteArrayOutputStream baos, int m, int d) {
+        byte[] bs = baos.toByteArray();
+        for (int i = 0, p = bs.length; i < m; i++) {
+            baos.write(i < d ? bs[p - d + i] : baos.toByteArray()[p - d + i]);
+        }
+    }
+}
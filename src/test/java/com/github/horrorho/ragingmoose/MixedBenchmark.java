@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mixed format decoding. With polluted set, setup first decodes streams of every block type so that the JIT profiles
+ * see raw, LZVN and LZFSE decoders live in the same JVM. The mixed type interleaves blocks of all four types.
+ * <p>
+ * Inlining decisions may be inspected with:
+ * -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintCompilation -XX:+PrintInlining"
+ *
+ * @author Ayesha
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MixedBenchmark {
+
+    private static final int LENGTH = 262144;
+
+    @Param({"bvxn", "bvx2", "mixed"})
+    public String type;
+
+    @Param({"false", "true"})
+    public boolean polluted;
+
+    private final byte[] buffer = new byte[65536];
+
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        data = type.equals("mixed")
+                ? mixed(LENGTH)
+                : Corpus.stream(type, LENGTH << 2);
+        if (polluted) {
+            byte[][] streams = new byte[Corpus.TYPES.length][];
+            for (int i = 0; i < streams.length; i++) {
+                streams[i] = Corpus.stream(Corpus.TYPES[i], LENGTH >> 2);
+            }
+            for (int i = 0; i < 500; i++) {
+                for (byte[] stream : streams) {
+                    decode(stream);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        return decode(data);
+    }
+
+    long decode(byte[] stream) throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(stream))) {
+            return DecodeBenchmark.drain(is, buffer);
+        }
+    }
+
+    static byte[] mixed(int length) throws IOException {
+        // Round robin over the blocks of each single type stream.
+        List<List<byte[]>> blocks = new ArrayList<>();
+        for (String type : Corpus.TYPES) {
+            blocks.add(Corpus.blocks(Corpus.stream(type, length)));
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int j = 0, n = 1; j < n; j++) {
+            for (List<byte[]> list : blocks) {
+                n = Math.max(n, list.size());
+                if (j < list.size()) {
+                    baos.write(list.get(j));
+                }
+            }
+        }
+        baos.write(ByteBuffer.allocate(4).order(LITTLE_ENDIAN).putInt(Corpus.EOS).array());
+        return baos.toByteArray();
+    }
+}
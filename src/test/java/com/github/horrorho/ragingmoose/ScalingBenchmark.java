@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Concurrent decoding throughput and latency, each thread decoding its own independent streams.
+ * <p>
+ * Sample time mode reports p50/ p99/ p999 latencies, the gc profiler allocation rates per operation. Run directly for
+ * a single thread count, -t, or via {@link #main(java.lang.String[])} to sweep 1 to N threads. A fixed heap, to expose
+ * GC induced tail latencies, may be set with -heap, for example:
+ * <pre>
+ * mvn -P benchmark test -Djmh.main=com.github.horrorho.ragingmoose.ScalingBenchmark -Djmh.prof= -Djmh.args="-t 8 -heap 256m"
+ * </pre>
+ *
+ * @author Ayesha
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"bvxn", "bvx2"})
+    public String type;
+
+    @Param({"65532", "1000000"})
+    public int length;
+
+    private final byte[] buffer = new byte[16384];
+
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        // Per thread copy.
+        data = Corpus.stream(type, length).clone();
+    }
+
+    @Benchmark
+    public long decode() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            return DecodeBenchmark.drain(is, buffer);
+        }
+    }
+
+    /**
+     * Sweeps thread counts, doubling from 1 to the number of available processors.
+     *
+     * @param args optional: -t maximum threads, defaults to available processors; -heap fixed heap size, e.g. 256m
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        int max = Runtime.getRuntime().availableProcessors();
+        String heap = null;
+        for (int i = 0; i < args.length - 1; i += 2) {
+            switch (args[i]) {
+                case "-t":
+                    max = Integer.parseInt(args[i + 1]);
+                    break;
+                case "-heap":
+                    heap = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+
+        List<Integer> threads = new ArrayList<>();
+        for (int t = 1; t < max; t <<= 1) {
+            threads.add(t);
+        }
+        threads.add(max);
+
+        for (int t : threads) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(ScalingBenchmark.class.getSimpleName())
+                    .threads(t)
+                    .addProfiler(GCProfiler.class);
+            if (heap != null) {
+                options.jvmArgsAppend("-Xms" + heap, "-Xmx" + heap, "-XX:+AlwaysPreTouch");
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
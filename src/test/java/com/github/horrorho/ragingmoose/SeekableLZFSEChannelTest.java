@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import static com.github.horrorho.ragingmoose.LZFSEConstants.MATCH_BUFFER_SIZE;
+import static com.github.horrorho.ragingmoose.ProcessAssistant.copy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import junitparams.JUnitParamsRunner;
+import junitparams.Parameters;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+/**
+ *
+ * @author Ayesha
+ */
+@RunWith(JUnitParamsRunner.class)
+public class SeekableLZFSEChannelTest {
+
+    private final byte[] buffer = new byte[16384];
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+    private byte[] decoded;
+
+    /**
+     * lzfse.test blocks repeated, bvx1 bvx2 bvx2 bvxn bvx- x3.
+     *
+     * @throws IOException
+     */
+    @Before
+    public void before() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = this.getClass().getClassLoader().getResourceAsStream("lzfse.test")) {
+            assertNotNull("lzfse.test", is);
+            copy(is, baos, buffer);
+        }
+        byte[] bs = baos.toByteArray();
+        byte[] blocks = Arrays.copyOfRange(bs, 32, bs.length - 4);
+        byte[] eos = Arrays.copyOfRange(bs, bs.length - 4, bs.length);
+
+        path = folder.newFile().toPath();
+        try (OutputStream os = Files.newOutputStream(path)) {
+            for (int i = 0; i < 3; i++) {
+                os.write(blocks);
+            }
+            os.write(eos);
+        }
+
+        baos.reset();
+        try (InputStream is = new LZFSEInputStream(Files.newInputStream(path))) {
+            copy(is, baos, buffer);
+        }
+        decoded = baos.toByteArray();
+    }
+
+    @Test
+    @Parameters({"1", "10000", "8388608"})
+    public void randomAccessTest(long interval) throws IOException {
+        LZFSEIndex index;
+        try (FileChannel ch = FileChannel.open(path)) {
+            index = LZFSEIndex.build(ch, interval);
+        }
+        assertEquals("size", decoded.length, index.size());
+        assertEquals("blocks", 15, index.blocks());
+
+        Random random = new Random(interval);
+        try (SeekableLZFSEChannel ch = new SeekableLZFSEChannel(FileChannel.open(path), index)) {
+            for (int i = 0; i < 100; i++) {
+                int position = random.nextInt(decoded.length);
+                int length = Math.min(1 + random.nextInt(20000), decoded.length - position);
+                ByteBuffer bb = ByteBuffer.allocate(length);
+                ch.position(position);
+                while (bb.hasRemaining() && ch.read(bb) != -1) {
+                }
+                assertArrayEquals("position:" + position,
+                        Arrays.copyOfRange(decoded, position, position + length), bb.array());
+            }
+            ch.position(decoded.length);
+            assertEquals("eos", -1, ch.read(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    public void persistTest() throws IOException {
+        LZFSEIndex index;
+        try (FileChannel ch = FileChannel.open(path)) {
+            index = LZFSEIndex.build(ch, 10000);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        index.write(baos);
+        LZFSEIndex _index = LZFSEIndex.read(new ByteArrayInputStream(baos.toByteArray()));
+
+        assertEquals("blocks", index.blocks(), _index.blocks());
+        assertEquals("checkpoints", index.checkpoints(), _index.checkpoints());
+        assertEquals("size", index.size(), _index.size());
+
+        try (SeekableLZFSEChannel ch = new SeekableLZFSEChannel(FileChannel.open(path), _index)) {
+            int position = decoded.length - 1000;
+            ByteBuffer bb = ByteBuffer.allocateDirect(1000);
+            ch.position(position);
+            while (bb.hasRemaining() && ch.read(bb) != -1) {
+            }
+            byte[] bs = new byte[1000];
+            ((ByteBuffer) bb.flip()).get(bs);
+            assertArrayEquals("tail", Arrays.copyOfRange(decoded, position, decoded.length), bs);
+        }
+    }
+
+    @Test
+    public void tamperedTest() throws IOException {
+        LZFSEIndex index;
+        try (FileChannel ch = FileChannel.open(path)) {
+            index = LZFSEIndex.build(ch, 10000);
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        index.write(baos);
+        byte[] bs = baos.toByteArray();
+
+        // Layout: magic, version, block count, offset/ position pairs, checkpoint count, checkpoint/ window entries.
+        int blocks = 12;
+        int checkpoints = blocks + 16 * (index.blocks() + 1) + 4;
+        int second = checkpoints + 8; // The first checkpoint window is empty.
+
+        assertTampered("offset", ByteBuffer.wrap(bs.clone()).putLong(blocks + 16, 0));
+        assertTampered("position", ByteBuffer.wrap(bs.clone()).putLong(blocks + 24, 0));
+        assertTampered("checkpoint", ByteBuffer.wrap(bs.clone()).putInt(second, 0));
+        assertTampered("window", ByteBuffer.wrap(bs.clone()).putInt(second + 4, MATCH_BUFFER_SIZE));
+        // Fails on the entries actually present, not on a 2^31 entry allocation.
+        assertTampered("count", ByteBuffer.wrap(bs.clone()).putInt(8, Integer.MAX_VALUE));
+    }
+
+    static void assertTampered(String message, ByteBuffer bb) throws IOException {
+        try {
+            LZFSEIndex.read(new ByteArrayInputStream(bb.array()));
+            fail(message);
+        } catch (LZFSEDecoderException ex) {
+        }
+    }
+
+    @Test
+    public void restartMarkTest() throws IOException {
+        // Decodes past the 256 KB window, so late checkpoint windows are shorter than their positions.
+        byte[] bs = LZFSEInputStreamTest.composite(0);
+        byte[] expected = LZFSEInputStreamTest.decode(bs);
+        Path composite = folder.newFile().toPath();
+        Files.write(composite, bs);
+
+        LZFSEIndex index;
+        try (FileChannel ch = FileChannel.open(composite)) {
+            index = LZFSEIndex.build(ch, 10000);
+        }
+        int checkpoint = index.checkpoints() - 1;
+        long position = index.checkpointPosition(checkpoint);
+        try (FileChannel ch = FileChannel.open(composite);
+                LZFSEInputStream is = new LZFSEInputStream(ch)) {
+            ch.position(index.checkpointOffset(checkpoint));
+            is.restart(index.checkpointWindow(checkpoint), position);
+            assertTrue("window", index.checkpointWindow(checkpoint).length < position);
+            assertEquals("restart", position, is.position());
+
+            int offset = (int) (expected.length - position) / 2;
+            int length = (int) (expected.length - position) - offset;
+            assertEquals("skip", offset, is.skip(offset));
+            assertEquals("skipped", position + offset, is.position());
+
+            byte[] tail = Arrays.copyOfRange(expected, (int) position + offset, expected.length);
+            byte[] b = new byte[length];
+            is.mark(length);
+            new DataInputStream(is).readFully(b);
+            assertArrayEquals("read", tail, b);
+            is.reset();
+            assertEquals("reset", position + offset, is.position());
+            Arrays.fill(b, (byte) 0);
+            new DataInputStream(is).readFully(b);
+            assertArrayEquals("replay", tail, b);
+            assertEquals("eos", -1, is.read());
+        }
+    }
+}
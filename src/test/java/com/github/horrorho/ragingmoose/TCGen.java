@@ -0,0 +1,234 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.InputStream;
+import java.util.Random;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Deterministic compression test data, after Matt Mahoney's tcgen.
+ * <p>
+ * Covers tcgen's broad data classes: random words drawn from a vocabulary, repeated random strings, byte runs and
+ * random symbols of fixed or varying entropy. Output is streamed, any length may be generated without buffering. The
+ * same seed and parameters always produce the same bytes, they are not however byte compatible with tcgen itself.
+ *
+ * @author Ayesha
+ */
+@NotThreadSafe
+@ParametersAreNonnullByDefault
+public abstract class TCGen extends InputStream {
+
+    /**
+     * Random words, space separated, drawn with a skewed distribution from a vocabulary of random lower case words.
+     *
+     * @param seed
+     * @param length
+     * @param vocabulary number of distinct words
+     * @param wordLength maximum word length
+     * @return generator
+     */
+    @Nonnull
+    public static TCGen words(long seed, long length, int vocabulary, int wordLength) {
+        return new TCGen(seed, length) {
+            private final byte[][] words = vocabulary(random, vocabulary, wordLength);
+            private byte[] word = new byte[0];
+            private int p;
+
+            @Override
+            int next() {
+                if (p == word.length) {
+                    double r = random.nextDouble();
+                    word = words[(int) (r * r * r * words.length)];
+                    p = 0;
+                    return ' ';
+                }
+                return word[p++];
+            }
+        };
+    }
+
+    /**
+     * Random strings, each repeated a number of times before the next is generated.
+     *
+     * @param seed
+     * @param length
+     * @param stringLength
+     * @param copies
+     * @param alphabet number of distinct byte values, 1 to 256
+     * @return generator
+     */
+    @Nonnull
+    public static TCGen repeats(long seed, long length, int stringLength, int copies, int alphabet) {
+        return new TCGen(seed, length) {
+            private final byte[] string = new byte[stringLength];
+            private int copy = copies;
+            private int p = stringLength;
+
+            @Override
+            int next() {
+                if (p == string.length) {
+                    if (++copy >= copies) {
+                        for (int i = 0; i < string.length; i++) {
+                            string[i] = (byte) random.nextInt(alphabet);
+                        }
+                        copy = 0;
+                    }
+                    p = 0;
+                }
+                return string[p++];
+            }
+        };
+    }
+
+    /**
+     * Runs of a single byte value, zeros, ones or random values, with geometrically distributed lengths.
+     *
+     * @param seed
+     * @param length
+     * @param meanRun
+     * @return generator
+     */
+    @Nonnull
+    public static TCGen runs(long seed, long length, int meanRun) {
+        return new TCGen(seed, length) {
+            private int value;
+            private int run;
+
+            @Override
+            int next() {
+                if (run == 0) {
+                    int r = random.nextInt(3);
+                    value = r == 0 ? 0x00 : r == 1 ? 0xFF : random.nextInt(256);
+                    run = 1 + (int) (-Math.log(1 - random.nextDouble()) * meanRun);
+                }
+                run--;
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Uniformly random symbols of the given entropy.
+     *
+     * @param seed
+     * @param length
+     * @param bits entropy per byte, 0 to 8
+     * @return generator
+     */
+    @Nonnull
+    public static TCGen entropy(long seed, long length, int bits) {
+        return new TCGen(seed, length) {
+            @Override
+            int next() {
+                return random.nextInt(1 << bits);
+            }
+        };
+    }
+
+    /**
+     * Uniformly random symbols, the entropy stepping through 0 to 8 bits per byte and back every period bytes.
+     *
+     * @param seed
+     * @param length
+     * @param period
+     * @return generator
+     */
+    @Nonnull
+    public static TCGen varyingEntropy(long seed, long length, int period) {
+        return new TCGen(seed, length) {
+            private int bits;
+            private int step = 1;
+            private int n = period;
+
+            @Override
+            int next() {
+                if (n-- == 0) {
+                    if (bits + step < 0 || bits + step > 8) {
+                        step = -step;
+                    }
+                    bits += step;
+                    n = period - 1;
+                }
+                return random.nextInt(1 << bits);
+            }
+        };
+    }
+
+    static byte[][] vocabulary(Random random, int n, int wordLength) {
+        byte[][] words = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            words[i] = new byte[1 + random.nextInt(wordLength)];
+            for (int j = 0; j < words[i].length; j++) {
+                words[i][j] = (byte) ('a' + random.nextInt(26));
+            }
+        }
+        return words;
+    }
+
+    final Random random;
+    private long remaining;
+
+    TCGen(long seed, long length) {
+        this.random = new Random(seed);
+        this.remaining = length;
+    }
+
+    abstract int next();
+
+    @Override
+    public int read() {
+        if (remaining <= 0) {
+            return -1;
+        }
+        remaining--;
+        return next() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (remaining <= 0) {
+            return -1;
+        }
+        int n = (int) Math.min(len, remaining);
+        for (int i = off, to = off + n; i < to; i++) {
+            b[i] = (byte) next();
+        }
+        remaining -= n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Ayesha.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.horrorho.ragingmoose;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Partial read latency, lzfse.test resource data (leading bvx1/ bvx2 blocks).
+ *
+ * @author Ayesha
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeToFirstByteBenchmark {
+
+    private final byte[] buffer = new byte[512];
+
+    private byte[] data;
+
+    @Setup
+    public void setup() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream("lzfse.test")) {
+            ProcessAssistant.copy(is, baos, new byte[16384]);
+        }
+        byte[] bs = baos.toByteArray();
+        // Strip SHA-256 digest.
+        data = Arrays.copyOfRange(bs, 32, bs.length);
+    }
+
+    @Benchmark
+    public int firstByte() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            return is.read();
+        }
+    }
+
+    @Benchmark
+    public int first512Bytes() throws IOException {
+        try (InputStream is = new LZFSEInputStream(new ByteArrayInputStream(data))) {
+            int n = 0;
+            int r;
+            while (n < buffer.length && (r = is.read(buffer, n, buffer.length - n)) != -1) {
+                n += r;
+            }
+            return n;
+        }
+    }
+}